@@ -2,8 +2,10 @@ package org.ex9.contractorservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ContractorServiceApplication {
 
     public static void main(String[] args) {
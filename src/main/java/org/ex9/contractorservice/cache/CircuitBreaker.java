@@ -0,0 +1,105 @@
+package org.ex9.contractorservice.cache;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Автоматический выключатель для обращений к Redis.
+ *
+ * <p>После {@code failureThreshold} ошибок подряд переходит в состояние {@link State#OPEN}
+ * и не пропускает запросы в течение {@code openDuration}. Затем один пробный запрос
+ * ({@link State#HALF_OPEN}) проверяет восстановление: успех закрывает выключатель,
+ * ошибка снова открывает его.</p>
+ * @author Краковцев Артём
+ */
+@Log4j2
+public class CircuitBreaker {
+
+    /**
+     * Состояние выключателя.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private volatile State state = State.CLOSED;
+    private volatile int failures;
+    private long openedAt;
+
+    /**
+     * @param name             имя выключателя для журнала
+     * @param failureThreshold количество ошибок подряд, после которого выключатель открывается
+     * @param openDuration     время, в течение которого запросы не пропускаются
+     */
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this(name, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Проверяет, можно ли выполнить запрос. В открытом состоянии по истечении
+     * {@code openDuration} пропускает ровно один пробный запрос.
+     *
+     * @return {@code true}, если запрос можно выполнить
+     */
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                return true;
+            }
+            return state == State.CLOSED;
+        }
+    }
+
+    /**
+     * Фиксирует успешный запрос.
+     */
+    public void onSuccess() {
+        if (state == State.CLOSED && failures == 0) {
+            return;
+        }
+        synchronized (this) {
+            failures = 0;
+            if (state != State.CLOSED) {
+                state = State.CLOSED;
+                log.info("Circuit breaker {} closed", name);
+            }
+        }
+    }
+
+    /**
+     * Фиксирует неуспешный запрос.
+     */
+    public synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            log.warn("Circuit breaker {} opened after {} failures", name, failures);
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.ex9.contractorservice.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Компактный сериализатор значений кэша Redis для заранее известного типа.
+ *
+ * <p>Значение пишется в Smile без имён классов: тип задаётся при создании сериализатора,
+ * поэтому каждый кэш использует свой экземпляр. Первый байт значения определяет формат:
+ * {@link #PLAIN} — Smile как есть, {@link #DEFLATED} — Smile, сжатый Deflate
+ * (применяется, когда тело не меньше порога сжатия).
+ * Значение в неизвестном формате (например, JSON, записанный до переключения кэша)
+ * читается как {@code null}, то есть как промах кэша, и перезаписывается при следующем заполнении.</p>
+ * @author Краковцев Артём
+ */
+@Log4j2
+public final class CompactRedisSerializer<T> implements RedisSerializer<T> {
+
+    static final byte PLAIN = 1;
+    static final byte DEFLATED = 2;
+
+    private final ObjectMapper smileMapper;
+    private final JavaType type;
+    private final int compressionThreshold;
+
+    /**
+     * @param smileMapper          ObjectMapper на базе {@code SmileFactory}
+     * @param type                 тип значений кэша
+     * @param compressionThreshold минимальный размер тела в байтах, начиная с которого оно сжимается
+     */
+    public CompactRedisSerializer(ObjectMapper smileMapper, JavaType type, int compressionThreshold) {
+        this.smileMapper = smileMapper;
+        this.type = type;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] body = smileMapper.writerFor(type).writeValueAsBytes(value);
+            return body.length < compressionThreshold ? plain(body) : deflate(body);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value of type " + type, e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            switch (bytes[0]) {
+                case PLAIN:
+                    return smileMapper.readValue(bytes, 1, bytes.length - 1, type);
+                case DEFLATED:
+                    try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+                        return smileMapper.readValue(in, type);
+                    }
+                default:
+                    log.debug("Unknown cache value format {}, treating as cache miss", bytes[0]);
+                    return null;
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not read cache value of type " + type, e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return type.getRawClass();
+    }
+
+    private static byte[] plain(byte[] body) {
+        byte[] result = new byte[body.length + 1];
+        result[0] = PLAIN;
+        System.arraycopy(body, 0, result, 1, body.length);
+        return result;
+    }
+
+    private static byte[] deflate(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 1);
+        out.write(DEFLATED);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+            stream.write(body);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,47 @@
+package org.ex9.contractorservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Менеджер кэшей, оборачивающий кэши исходного менеджера функцией-декоратором
+ * (например, в {@link RefreshAheadCache} и {@link ResilientCache}). Обёртка создаётся
+ * один раз на кэш; декоратор может вернуть исходный кэш без изменений.
+ * @author Краковцев Артём
+ */
+public class DecoratingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Function<Cache, Cache> decorator;
+
+    private final ConcurrentHashMap<String, Cache> decorated = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate  исходный менеджер кэшей
+     * @param decorator функция, оборачивающая исходный кэш
+     */
+    public DecoratingCacheManager(CacheManager delegate, Function<Cache, Cache> decorator) {
+        this.delegate = delegate;
+        this.decorator = decorator;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = decorated.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        return target == null ? null : decorated.computeIfAbsent(name, n -> decorator.apply(target));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+}
@@ -0,0 +1,250 @@
+package org.ex9.contractorservice.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Декоратор кэша с однократной загрузкой при промахе и упреждающим обновлением.
+ *
+ * <p>Используется для {@code @Cacheable(sync = true)}, когда Spring вызывает {@link #get(Object, Callable)}.
+ * При промахе значение загружает только один поток на ключ в пределах экземпляра сервиса,
+ * остальные ждут тот же {@link CompletableFuture}. При попадании, если до истечения TTL в Redis
+ * осталось меньше {@code refreshAhead}, значение перезагружается в фоне, а вызывающий сразу
+ * получает текущее. Момент обновления сдвигается на случайную величину, чтобы экземпляры
+ * не обновляли кэш одновременно; перед загрузкой TTL перечитывается, и если другой экземпляр
+ * уже обновил запись, загрузка не выполняется.</p>
+ *
+ * <p>Загрузчик мог прочитать БД до изменения, после которого ключ вытеснили. Поэтому вытеснение
+ * и очистка увеличивают номер поколения, а загрузка, начатая до них, не записывает результат в кэш.</p>
+ * @author Краковцев Артём
+ */
+@Log4j2
+public class RefreshAheadCache implements Cache {
+
+    private final Cache delegate;
+    private final Function<Object, Duration> remainingTtl;
+    private final Duration ttl;
+    private final Duration refreshAhead;
+    private final Executor executor;
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Long> refreshAt = new ConcurrentHashMap<>();
+
+    /** Номер поколения: увеличивается при каждом вытеснении ключа с незавершённой загрузкой и каждой очистке */
+    private final AtomicLong generation = new AtomicLong();
+    /** Поколение последнего вытеснения ключа, вытесненного во время загрузки */
+    private final ConcurrentHashMap<Object, Long> evictedAt = new ConcurrentHashMap<>();
+    private volatile long clearedAt;
+
+    /**
+     * @param delegate     исходный кэш
+     * @param remainingTtl оставшееся время жизни записи по ключу; {@code null}, если неизвестно
+     * @param ttl          время жизни записи
+     * @param refreshAhead за сколько до истечения TTL обновлять запись
+     * @param executor     исполнитель фоновых обновлений
+     */
+    public RefreshAheadCache(Cache delegate, Function<Object, Duration> remainingTtl, Duration ttl,
+                             Duration refreshAhead, Executor executor) {
+        this.delegate = delegate;
+        this.remainingTtl = remainingTtl;
+        this.ttl = ttl;
+        this.refreshAhead = refreshAhead;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            refreshIfDue(key, valueLoader);
+            return (T) cached.get();
+        }
+        try {
+            return (T) load(key, valueLoader).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        refreshAt.put(key, nextRefreshAt(ttl));
+    }
+
+    @Override
+    public void evict(Object key) {
+        markEvicted(key);
+        refreshAt.remove(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        markEvicted(key);
+        refreshAt.remove(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        clearedAt = generation.incrementAndGet();
+        refreshAt.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        clearedAt = generation.incrementAndGet();
+        refreshAt.clear();
+        return delegate.invalidate();
+    }
+
+    private CompletableFuture<Object> load(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = loads.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        long startedAt = generation.get();
+        try {
+            // значение могло появиться, пока предыдущая загрузка завершалась
+            ValueWrapper cached = delegate.get(key);
+            if (cached != null) {
+                created.complete(cached.get());
+            } else {
+                Object value = valueLoader.call();
+                putUnlessEvicted(key, value, startedAt);
+                created.complete(value);
+            }
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+        } finally {
+            finishLoad(key, created);
+        }
+        return created;
+    }
+
+    private void refreshIfDue(Object key, Callable<?> valueLoader) {
+        long now = System.nanoTime();
+        Long dueAt = refreshAt.get(key);
+        if (dueAt == null) {
+            dueAt = nextRefreshAt(remaining(key));
+            refreshAt.put(key, dueAt);
+        }
+        if (now - dueAt < 0 || loads.containsKey(key)) {
+            return;
+        }
+        Duration remaining = remainingTtl.apply(key);
+        if (remaining != null && remaining.compareTo(refreshAhead) > 0) {
+            refreshAt.put(key, nextRefreshAt(remaining));
+            return;
+        }
+
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, created) != null) {
+            return;
+        }
+        refreshAt.put(key, nextRefreshAt(ttl));
+        long startedAt = generation.get();
+        try {
+            executor.execute(() -> refresh(key, valueLoader, created, startedAt));
+        } catch (RuntimeException e) {
+            finishLoad(key, created);
+            log.warn("Could not schedule refresh of cache {} key {}: {}", getName(), key, e.getMessage());
+        }
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader, CompletableFuture<Object> future, long startedAt) {
+        try {
+            Object value = valueLoader.call();
+            putUnlessEvicted(key, value, startedAt);
+            future.complete(value);
+        } catch (Throwable e) {
+            log.warn("Refresh of cache {} key {} failed, serving the cached value", getName(), key, e);
+            future.completeExceptionally(e);
+        } finally {
+            finishLoad(key, future);
+        }
+    }
+
+    /**
+     * Записывает загруженное значение, если ключ не вытесняли с начала загрузки. Вытеснение,
+     * пришедшее между проверкой и записью, обнаруживается повторной проверкой, и запись удаляется.
+     */
+    private void putUnlessEvicted(Object key, Object value, long startedAt) {
+        if (evictedSince(key, startedAt)) {
+            log.debug("Cache {} key {} was evicted while loading, not caching the loaded value", getName(), key);
+            return;
+        }
+        put(key, value);
+        if (evictedSince(key, startedAt)) {
+            refreshAt.remove(key);
+            delegate.evict(key);
+        }
+    }
+
+    private boolean evictedSince(Object key, long startedAt) {
+        return clearedAt > startedAt || evictedAt.getOrDefault(key, 0L) > startedAt;
+    }
+
+    /**
+     * Запоминает поколение вытеснения, если ключ сейчас загружается. Загрузка, начатая позже,
+     * уже читает данные, изменённые до вытеснения, поэтому без незавершённой загрузки запоминать нечего.
+     */
+    private void markEvicted(Object key) {
+        if (loads.containsKey(key)) {
+            evictedAt.put(key, generation.incrementAndGet());
+        }
+    }
+
+    private void finishLoad(Object key, CompletableFuture<Object> future) {
+        evictedAt.remove(key);
+        loads.remove(key, future);
+    }
+
+    private Duration remaining(Object key) {
+        Duration remaining = remainingTtl.apply(key);
+        return remaining != null ? remaining : ttl;
+    }
+
+    private long nextRefreshAt(Duration remaining) {
+        long jitter = ThreadLocalRandom.current().nextLong(refreshAhead.toNanos() / 4 + 1);
+        return System.nanoTime() + remaining.toNanos() - refreshAhead.toNanos() - jitter;
+    }
+
+}
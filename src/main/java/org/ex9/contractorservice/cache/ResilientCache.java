@@ -0,0 +1,260 @@
+package org.ex9.contractorservice.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Декоратор кэша Redis, сохраняющий работоспособность при недоступности Redis.
+ *
+ * <p>Ошибки обращения к Redis учитываются {@link CircuitBreaker}. Пока выключатель открыт
+ * (или запрос к Redis завершился ошибкой), значения берутся из локальной копии, которая
+ * обновляется при каждом успешном чтении; копия старше {@code localTtl} загружается заново
+ * напрямую из БД, одним потоком на ключ. Ошибки самого загрузчика (БД) пробрасываются
+ * вызывающему и не влияют на выключатель.</p>
+ *
+ * <p>Сброс записей, который не удалось выполнить в Redis во время сбоя, запоминается
+ * и повторяется перед первой операцией после восстановления, чтобы Redis не отдавал
+ * устаревшие справочники.</p>
+ * @author Краковцев Артём
+ */
+@Log4j2
+public class ResilientCache implements Cache {
+
+    private final Cache delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final long localTtlNanos;
+
+    private final ConcurrentHashMap<Object, LocalEntry> local = new ConcurrentHashMap<>();
+    private final Set<Object> pendingEvictions = ConcurrentHashMap.newKeySet();
+    private volatile boolean pendingClear;
+
+    /**
+     * @param delegate       кэш Redis
+     * @param circuitBreaker выключатель, общий для кэшей одного подключения к Redis
+     * @param localTtl       время жизни локальной копии при недоступном Redis
+     */
+    public ResilientCache(Cache delegate, CircuitBreaker circuitBreaker, Duration localTtl) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.localTtlNanos = localTtl.toNanos();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (circuitBreaker.allowRequest()) {
+            try {
+                replayEvictions();
+                ValueWrapper wrapper = delegate.get(key);
+                circuitBreaker.onSuccess();
+                if (wrapper != null) {
+                    remember(key, wrapper.get());
+                }
+                return wrapper;
+            } catch (RuntimeException e) {
+                redisFailed("get", e);
+            }
+        }
+        LocalEntry entry = freshLocal(key);
+        return entry != null ? new SimpleValueWrapper(entry.value()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (circuitBreaker.allowRequest()) {
+            GuardedLoader<T> loader = new GuardedLoader<>(valueLoader);
+            try {
+                replayEvictions();
+                T value = delegate.get(key, loader);
+                circuitBreaker.onSuccess();
+                remember(key, value);
+                return value;
+            } catch (RuntimeException e) {
+                LoaderFailure loaderFailure = findLoaderFailure(e);
+                if (loaderFailure != null) {
+                    circuitBreaker.onSuccess();
+                    throw rethrow(key, valueLoader, loaderFailure.getCause());
+                }
+                redisFailed("get", e);
+                if (loader.loaded) {
+                    remember(key, loader.value);
+                    return loader.value;
+                }
+            }
+        }
+        return (T) loadLocally(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remember(key, value);
+        runOnRedis("put", () -> delegate.put(key, value), () -> pendingEvictions.add(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.remove(key);
+        runOnRedis("evict", () -> delegate.evict(key), () -> pendingEvictions.add(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = local.remove(key) != null;
+        evict(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        runOnRedis("clear", delegate::clear, () -> pendingClear = true);
+    }
+
+    private void runOnRedis(String operation, Runnable action, Runnable onFailure) {
+        if (!circuitBreaker.allowRequest()) {
+            onFailure.run();
+            return;
+        }
+        try {
+            replayEvictions();
+            action.run();
+            circuitBreaker.onSuccess();
+        } catch (RuntimeException e) {
+            redisFailed(operation, e);
+            onFailure.run();
+        }
+    }
+
+    private void redisFailed(String operation, RuntimeException e) {
+        circuitBreaker.onFailure();
+        log.warn("Redis {} for cache {} failed, using local copy: {}", operation, getName(), e.getMessage());
+    }
+
+    /**
+     * Повторяет в Redis сброс записей, отложенный во время сбоя. Выполняется перед первой
+     * операцией после восстановления, чтобы она не прочитала устаревшее значение.
+     */
+    private void replayEvictions() {
+        if (pendingClear) {
+            delegate.clear();
+            pendingClear = false;
+            pendingEvictions.clear();
+            return;
+        }
+        for (Object key : pendingEvictions) {
+            delegate.evict(key);
+            pendingEvictions.remove(key);
+        }
+    }
+
+    private Object loadLocally(Object key, Callable<?> valueLoader) {
+        LocalEntry entry = local.compute(key, (k, current) -> {
+            if (current != null && current.isFresh(System.nanoTime(), localTtlNanos)) {
+                return current;
+            }
+            try {
+                return new LocalEntry(valueLoader.call(), System.nanoTime());
+            } catch (Exception e) {
+                throw rethrow(key, valueLoader, e);
+            }
+        });
+        return entry.value();
+    }
+
+    private LocalEntry freshLocal(Object key) {
+        LocalEntry entry = local.get(key);
+        return entry != null && entry.isFresh(System.nanoTime(), localTtlNanos) ? entry : null;
+    }
+
+    private void remember(Object key, Object value) {
+        if (value != null) {
+            local.put(key, new LocalEntry(value, System.nanoTime()));
+        }
+    }
+
+    private static LoaderFailure findLoaderFailure(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof LoaderFailure loaderFailure) {
+                return loaderFailure;
+            }
+        }
+        return null;
+    }
+
+    private static RuntimeException rethrow(Object key, Callable<?> valueLoader, Throwable cause) {
+        return cause instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new ValueRetrievalException(key, valueLoader, cause);
+    }
+
+    private record LocalEntry(Object value, long loadedAt) {
+
+        boolean isFresh(long now, long ttlNanos) {
+            return now - loadedAt < ttlNanos;
+        }
+
+    }
+
+    /**
+     * Загрузчик, отличающий ошибки БД от ошибок Redis и запоминающий загруженное значение,
+     * чтобы не обращаться к БД повторно, если после загрузки не удалось записать его в Redis.
+     */
+    private static final class GuardedLoader<T> implements Callable<T> {
+
+        private final Callable<T> target;
+        private volatile boolean loaded;
+        private volatile T value;
+
+        private GuardedLoader(Callable<T> target) {
+            this.target = target;
+        }
+
+        @Override
+        public T call() {
+            try {
+                value = target.call();
+                loaded = true;
+                return value;
+            } catch (Exception e) {
+                throw new LoaderFailure(e);
+            }
+        }
+
+    }
+
+    private static final class LoaderFailure extends RuntimeException {
+
+        private LoaderFailure(Throwable cause) {
+            super(cause);
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.ex9.contractorservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки ограничения частоты запросов ({@code rate-limit.*}).
+ * @author Краковцев Артём
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    /** Включено ли ограничение */
+    private boolean enabled = true;
+
+    /** Хранить корзины в Redis, общими для всех экземпляров сервиса */
+    private boolean shared = false;
+
+    /** Период удаления из памяти заполненных (неиспользуемых) локальных корзин */
+    private Duration evictionInterval = Duration.ofMinutes(10);
+
+    /** Лимиты по имени из {@link org.ex9.contractorservice.web.RateLimited} */
+    private Map<String, Limit> limits = new HashMap<>();
+
+    /**
+     * Лимит одного клиента.
+     */
+    @Data
+    public static class Limit {
+
+        /** Размер корзины — допустимый всплеск запросов */
+        private int capacity;
+
+        /** Скорость пополнения корзины — устойчивое число запросов в секунду */
+        private double refillPerSecond;
+
+    }
+
+}
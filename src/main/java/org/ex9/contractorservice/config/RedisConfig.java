@@ -1,23 +1,57 @@
 package org.ex9.contractorservice.config;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import lombok.RequiredArgsConstructor;
+import org.ex9.contractorservice.cache.CircuitBreaker;
+import org.ex9.contractorservice.cache.CompactRedisSerializer;
+import org.ex9.contractorservice.cache.DecoratingCacheManager;
+import org.ex9.contractorservice.cache.RefreshAheadCache;
+import org.ex9.contractorservice.cache.ResilientCache;
+import org.ex9.contractorservice.dto.country.CountryResponseDto;
+import org.ex9.contractorservice.dto.industry.IndustryResponseDto;
+import org.ex9.contractorservice.dto.orgform.OrgFormResponseDto;
+import org.ex9.contractorservice.service.CountryService;
+import org.ex9.contractorservice.service.IndustryService;
+import org.ex9.contractorservice.service.OrgFormService;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
+import org.springframework.util.unit.DataSize;
+
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.fasterxml.jackson.annotation.JsonTypeInfo.As.PROPERTY;
 
 /**
  * Конфигурация Redis для сервиса контрагентов и справочной информации.
- * <p>TTL = 1 час. JSON-сериализацию (GenericJackson2JsonRedisSerializer)</p>
+ * <p>TTL = 1 час. По умолчанию JSON-сериализация (GenericJackson2JsonRedisSerializer);
+ * кэши из {@code cache.redis.compact-caches} хранят значения через {@link CompactRedisSerializer}
+ * (Smile без имён классов, сжатие крупных значений). Кэши из {@code cache.redis.refresh-ahead-caches}
+ * загружаются одним потоком на ключ и обновляются в фоне до истечения TTL ({@link RefreshAheadCache}).
+ * Кэши из {@code cache.redis.resilient-caches} при недоступности Redis работают через локальную копию
+ * ({@link ResilientCache}), обращения к Redis при этом отключаются общим {@link CircuitBreaker}.</p>
  *
  * @author Краковцев Артём
  */
@@ -28,11 +62,41 @@ public class RedisConfig {
 
     private final ObjectMapper objectMapper;
 
+    @Value("${cache.redis.compact-caches:}")
+    private Set<String> compactCaches;
+
+    @Value("${cache.redis.compression-threshold:4KB}")
+    private DataSize compressionThreshold;
+
+    @Value("${cache.redis.ttl:1h}")
+    private Duration ttl;
+
+    @Value("${cache.redis.refresh-ahead-caches:}")
+    private Set<String> refreshAheadCaches;
+
+    @Value("${cache.redis.refresh-ahead:5m}")
+    private Duration refreshAhead;
+
+    @Value("${cache.redis.resilient-caches:}")
+    private Set<String> resilientCaches;
+
+    @Value("${cache.redis.local-ttl:60s}")
+    private Duration localTtl;
+
+    @Value("${cache.redis.breaker.failure-threshold:3}")
+    private int breakerFailureThreshold;
+
+    @Value("${cache.redis.breaker.open-duration:10s}")
+    private Duration breakerOpenDuration;
+
     /**
      * Бин RedisCacheManager с настройками времени жизни данных и JSON-сериализацией.
+     * Для кэшей с компактным форматом задаётся отдельная конфигурация со своим типом значения,
+     * кэши с упреждающим обновлением оборачиваются в {@link RefreshAheadCache},
+     * а устойчивые к сбою Redis — в {@link ResilientCache}.
      */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate stringRedisTemplate) {
         ObjectMapper cacheObjectMapper = objectMapper.copy();
         cacheObjectMapper.activateDefaultTyping(cacheObjectMapper.getPolymorphicTypeValidator(),
                 ObjectMapper.DefaultTyping.NON_FINAL,
@@ -41,12 +105,80 @@ public class RedisConfig {
                 .fromSerializer(new GenericJackson2JsonRedisSerializer(cacheObjectMapper));
 
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
+                .entryTtl(ttl)
                 .serializeValuesWith(serializer);
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .withInitialCacheConfigurations(compactCacheConfigurations(config))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        SimpleAsyncTaskExecutor refreshExecutor = new SimpleAsyncTaskExecutor("cache-refresh-");
+        refreshExecutor.setDaemon(true);
+        CircuitBreaker circuitBreaker = new CircuitBreaker("redis-cache", breakerFailureThreshold, breakerOpenDuration);
+        return new DecoratingCacheManager(redisCacheManager, cache -> {
+            Cache decorated = cache;
+            if (refreshAheadCaches.contains(cache.getName())) {
+                decorated = new RefreshAheadCache(
+                        decorated,
+                        key -> remainingTtl(stringRedisTemplate, config.getKeyPrefixFor(cache.getName()) + key),
+                        ttl,
+                        refreshAhead,
+                        refreshExecutor);
+            }
+            if (resilientCaches.contains(cache.getName())) {
+                decorated = new ResilientCache(decorated, circuitBreaker, localTtl);
+            }
+            return decorated;
+        });
+    }
+
+    private static Duration remainingTtl(StringRedisTemplate redisTemplate, String redisKey) {
+        try {
+            Long millis = redisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS);
+            return millis == null || millis < 0 ? null : Duration.ofMillis(millis);
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
+
+    private Map<String, RedisCacheConfiguration> compactCacheConfigurations(RedisCacheConfiguration defaults) {
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        Map<String, JavaType> valueTypes = Map.of(
+                CountryService.COUNTRIES_CACHE_PREFIX, listOf(smileMapper, CountryResponseDto.class),
+                IndustryService.INDUSTRIES_CACHE_PREFIX, listOf(smileMapper, IndustryResponseDto.class),
+                OrgFormService.ORG_FORM_CACHE_PREFIX, listOf(smileMapper, OrgFormResponseDto.class));
+
+        Map<String, RedisCacheConfiguration> configurations = new HashMap<>();
+        for (String cacheName : compactCaches) {
+            JavaType type = valueTypes.get(cacheName);
+            if (type == null) {
+                throw new IllegalStateException("No value type registered for compact cache " + cacheName);
+            }
+            var serializer = new CompactRedisSerializer<>(smileMapper, type, (int) compressionThreshold.toBytes());
+            configurations.put(cacheName, defaults
+                    .disableCachingNullValues()
+                    .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer)));
+        }
+        return configurations;
+    }
+
+    private static JavaType listOf(ObjectMapper mapper, Class<?> elementType) {
+        return mapper.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    /**
+     * Контейнер подписки на канал версий ресурсов, через который экземпляры сервиса
+     * сообщают друг другу об изменениях для ETag.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       ResourceVersionService resourceVersionService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(resourceVersionService, new ChannelTopic(ResourceVersionService.VERSIONS_CHANNEL));
+        return container;
     }
 
 }
@@ -0,0 +1,63 @@
+package org.ex9.contractorservice.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.ex9.contractorservice.service.ratelimit.RateLimiter;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
+import org.ex9.contractorservice.web.ConditionalGetInterceptor;
+import org.ex9.contractorservice.web.RateLimitInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Конфигурация Spring MVC: условные GET-запросы по ETag, ограничение частоты запросов и бинарные форматы Jackson.
+ *
+ * <p>Помимо JSON контроллеры отдают и принимают Smile ({@code application/x-jackson-smile})
+ * и CBOR ({@code application/cbor}) по заголовкам {@code Accept}/{@code Content-Type}.
+ * Конвертеры добавляются в конец списка, поэтому при {@code Accept: *}{@code /*} ответ остаётся в JSON.
+ * ObjectMapper строится тем же настроенным Spring Boot билдером, что и для JSON.</p>
+ * @author Краковцев Артём
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ResourceVersionService resourceVersionService;
+    private final RateLimiter rateLimiter;
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+    private final Duration referenceMaxAge;
+
+    public WebMvcConfig(ResourceVersionService resourceVersionService,
+                        RateLimiter rateLimiter,
+                        ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                        @Value("${http.etag.reference-max-age:60s}") Duration referenceMaxAge) {
+        this.resourceVersionService = resourceVersionService;
+        this.rateLimiter = rateLimiter;
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.referenceMaxAge = referenceMaxAge;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter));
+        registry.addInterceptor(new ConditionalGetInterceptor(resourceVersionService, referenceMaxAge));
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+    }
+
+}
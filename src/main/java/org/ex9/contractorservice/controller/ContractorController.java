@@ -8,13 +8,32 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.ex9.contractorservice.dto.ErrorResponse;
+import org.ex9.contractorservice.dto.contractor.ContractorBatchRequestDto;
+import org.ex9.contractorservice.dto.contractor.ContractorBatchResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorChangesResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorLookupRequestDto;
+import org.ex9.contractorservice.dto.contractor.ContractorLookupResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorPageResponseDto;
 import org.ex9.contractorservice.dto.contractor.ContractorRequestDto;
 import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorSuggestionDto;
 import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
+import org.ex9.contractorservice.enums.ContractorField;
 import org.ex9.contractorservice.service.ContractorService;
+import org.ex9.contractorservice.service.idempotency.IdempotencyService;
+import org.ex9.contractorservice.service.outbox.ContractorChangeFeedService;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
+import org.ex9.contractorservice.service.warmup.HotContractorTracker;
+import org.ex9.contractorservice.web.RateLimited;
+import org.ex9.contractorservice.web.VersionEtag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,11 +41,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.ex9.contractorservice.service.idempotency.IdempotencyService.IDEMPOTENCY_KEY_HEADER;
+import static org.ex9.contractorservice.service.idempotency.IdempotencyService.REPLAYED_HEADER;
+
 @RestController
 @Log4j2
 @RequiredArgsConstructor
@@ -35,11 +61,17 @@ import java.util.List;
 public class ContractorController {
 
     private final ContractorService contractorService;
+    private final IdempotencyService idempotencyService;
+    private final ContractorChangeFeedService contractorChangeFeedService;
+    private final HotContractorTracker hotContractorTracker;
+    private final ResourceVersionService resourceVersionService;
 
     @GetMapping("/{id}")
     @Operation(
             summary = "Get contractor by ID",
-            description = "Returns only active contractor (is_active = true)."
+            description = "Returns only active contractor (is_active = true). " +
+                    "Pass fields (e.g. id,name,inn) to return only these fields; unrequested joins are skipped. " +
+                    "The ETag carries the row version and can be sent as If-Match to /save."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -59,9 +91,15 @@ public class ContractorController {
                     )
             )
     })
-    public ResponseEntity<ContractorResponseDto> getById(@PathVariable @NotNull String id) {
+    public ResponseEntity<ContractorResponseDto> getById(@PathVariable @NotNull String id,
+                                                         @RequestParam(required = false) String fields) {
         log.debug("Getting contractor by ID: {}", id);
-        return ResponseEntity.ok(contractorService.findById(id));
+        ContractorResponseDto contractor = contractorService.findById(id, ContractorField.parse(fields));
+        hotContractorTracker.record(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(VersionEtag.of(contractor.getVersion(), resourceVersionService.referencesStamp()))
+                .body(contractor);
     }
 
     @DeleteMapping("/delete/{id}")
@@ -94,7 +132,9 @@ public class ContractorController {
     @Operation(
             summary = "Create or update a contractor",
             description = "Creates a new contractor or updates an existing one. " +
-                    "If the ID is exist, updates the existing contractor; else, creates a new one."
+                    "If the ID is exist, updates the existing contractor; else, creates a new one. " +
+                    "A retry with the same Idempotency-Key returns the stored response without saving again. " +
+                    "Pass the contractor ETag as If-Match to save only if nobody changed it since; the response ETag is the new one."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -119,15 +159,73 @@ public class ContractorController {
                     )
             )
     })
-    public ResponseEntity<ContractorResponseDto> save(@RequestBody @NotNull ContractorRequestDto request) {
-        var resp = contractorService.save(request);
-        log.debug("Contractor saved: {}, {}", resp.getId(), resp.getName());
-        return ResponseEntity.ok(resp);
+    public ResponseEntity<ContractorResponseDto> save(@RequestBody @NotNull ContractorRequestDto request,
+                                                      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                      @Size(max = 255) String idempotencyKey,
+                                                      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = VersionEtag.parseIfMatch(ifMatch);
+        var result = idempotencyService.execute(idempotencyKey, request, ContractorResponseDto.class,
+                () -> contractorService.save(request, null, expectedVersion));
+        var resp = result.value();
+        log.debug("Contractor saved: {}, {}, version: {}, replayed: {}", resp.getId(), resp.getName(), resp.getVersion(), result.replayed());
+        return ResponseEntity.ok()
+                .eTag(VersionEtag.of(resp.getVersion(), resourceVersionService.referencesStamp()))
+                .header(REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(resp);
+    }
+
+    @Operation(
+            summary = "Get contractors by ID list",
+            description = "Returns active contractors for up to 5000 IDs in one query, in request order, and lists IDs that were not found")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Found contractors and missing IDs",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ContractorBatchResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input data"
+            )
+    })
+    @RateLimited("bulk")
+    @PostMapping("/batch")
+    public ResponseEntity<ContractorBatchResponseDto> getByIds(@Valid @RequestBody ContractorBatchRequestDto request) {
+        log.debug("Getting {} contractors by ID", request.getIds().size());
+        return ResponseEntity.ok(contractorService.findByIds(request.getIds()));
+    }
+
+    @Operation(
+            summary = "Bulk lookup contractors by INN and OGRN",
+            description = "Resolves up to 5000 INN and 5000 OGRN values by exact match in one query per list. "
+                    + "Results are grouped by the requested value in request order")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Contractors grouped by requested INN and OGRN",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ContractorLookupResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input data"
+            )
+    })
+    @RateLimited("bulk")
+    @PostMapping("/lookup")
+    public ResponseEntity<ContractorLookupResponseDto> lookup(@Valid @RequestBody ContractorLookupRequestDto request) {
+        return ResponseEntity.ok(contractorService.lookup(request));
     }
 
     @Operation(
             summary = "Search contractors",
-            description = "Returns a paginated list of active contractors with filtering")
+            description = "Returns a paginated list of active contractors with filtering. " +
+                    "Pass fields (e.g. id,name,inn) to return only these fields")
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
@@ -143,9 +241,97 @@ public class ContractorController {
                     description = "Invalid input data"
             )
     })
+    @RateLimited("search")
     @PostMapping("/search")
-    public ResponseEntity<List<ContractorResponseDto>> search(@Valid @RequestBody SearchContractorRequestDto request) {
-        return ResponseEntity.ok(contractorService.search(request));
+    public ResponseEntity<List<ContractorResponseDto>> search(@Valid @RequestBody SearchContractorRequestDto request,
+                                                              @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(contractorService.search(request, ContractorField.parse(fields)));
+    }
+
+    @Operation(
+            summary = "Search contractors with page metadata",
+            description = "Returns a page of active contractors with filtering, a hasNext flag and, depending on totalMode, " +
+                    "an exact or estimated total count. Pass fields (e.g. id,name,inn) to return only these fields")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page of contractors",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ContractorPageResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input data"
+            )
+    })
+    @RateLimited("search")
+    @PostMapping("/search/paged")
+    public ResponseEntity<ContractorPageResponseDto> searchPaged(@Valid @RequestBody SearchContractorRequestDto request,
+                                                                 @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(contractorService.searchPage(request, ContractorField.parse(fields)));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "Suggest contractor names",
+            description = "Returns up to limit (max 50) active contractors whose name starts with the prefix, case-insensitive, ordered by name."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "List of id/name suggestions",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ContractorSuggestionDto.class)
+                    )
+            )
+    })
+    public ResponseEntity<List<ContractorSuggestionDto>> suggest(@RequestParam String prefix,
+                                                                 @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(contractorService.suggest(prefix, limit));
+    }
+
+    @GetMapping("/changes")
+    @Operation(
+            summary = "Get contractors changed since a watermark",
+            description = "Returns contractors, including deactivated ones, changed after the (since, afterId) watermark, " +
+                    "ordered by change time and ID. Pass nextSince/nextAfterId from the response to get the next batch; " +
+                    "omit since for a full initial load."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch of changed contractors with the next watermark",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ContractorChangesResponseDto.class)
+                    )
+            )
+    })
+    public ResponseEntity<ContractorChangesResponseDto> changes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(contractorService.findChanges(since, afterId, limit));
+    }
+
+    @GetMapping(path = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream contractor changes",
+            description = "Server-Sent Events stream of contractor.updated events with contractor JSON as data. " +
+                    "Each event id is the outbox sequence number; reconnect with the Last-Event-ID header to resume."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Event stream",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            )
+    })
+    public SseEmitter feed(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return contractorChangeFeedService.subscribe(lastEventId);
     }
 
 }
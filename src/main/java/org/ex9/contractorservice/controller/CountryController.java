@@ -11,7 +11,9 @@ import lombok.extern.log4j.Log4j2;
 import org.ex9.contractorservice.dto.ErrorResponse;
 import org.ex9.contractorservice.dto.country.CountryRequestDto;
 import org.ex9.contractorservice.dto.country.CountryResponseDto;
+import org.ex9.contractorservice.enums.VersionedResource;
 import org.ex9.contractorservice.service.CountryService;
+import org.ex9.contractorservice.web.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -37,6 +39,7 @@ public class CountryController {
         this.countryService = countryService;
     }
 
+    @ConditionalGet(VersionedResource.COUNTRIES)
     @GetMapping("/all")
     @Operation(
             summary = "Get all active countries",
@@ -57,6 +60,7 @@ public class CountryController {
         return ResponseEntity.ok(countryService.findAll());
     }
 
+    @ConditionalGet(VersionedResource.COUNTRIES)
     @GetMapping("/{id}")
     @Operation(
             summary = "Get country by ID",
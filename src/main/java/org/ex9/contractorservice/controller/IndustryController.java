@@ -11,7 +11,9 @@ import lombok.extern.log4j.Log4j2;
 import org.ex9.contractorservice.dto.ErrorResponse;
 import org.ex9.contractorservice.dto.industry.IndustryRequestDto;
 import org.ex9.contractorservice.dto.industry.IndustryResponseDto;
+import org.ex9.contractorservice.enums.VersionedResource;
 import org.ex9.contractorservice.service.IndustryService;
+import org.ex9.contractorservice.web.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -37,6 +39,7 @@ public class IndustryController {
         this.industryService = industryService;
     }
 
+    @ConditionalGet(VersionedResource.INDUSTRIES)
     @GetMapping("/all")
     @Operation(
             summary = "Get all active industries",
@@ -58,6 +61,7 @@ public class IndustryController {
         return ResponseEntity.ok(industryService.findAll());
     }
 
+    @ConditionalGet(VersionedResource.INDUSTRIES)
     @GetMapping("/{id}")
     @Operation(
             summary = "Get industry by ID",
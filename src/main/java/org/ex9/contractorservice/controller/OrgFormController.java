@@ -11,7 +11,9 @@ import lombok.extern.log4j.Log4j2;
 import org.ex9.contractorservice.dto.ErrorResponse;
 import org.ex9.contractorservice.dto.orgform.OrgFormRequestDto;
 import org.ex9.contractorservice.dto.orgform.OrgFormResponseDto;
+import org.ex9.contractorservice.enums.VersionedResource;
 import org.ex9.contractorservice.service.OrgFormService;
+import org.ex9.contractorservice.web.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -37,6 +39,7 @@ public class OrgFormController {
         this.orgFormService = orgFormService;
     }
 
+    @ConditionalGet(VersionedResource.ORG_FORMS)
     @GetMapping("/all")
     @Operation(
             summary = "Get all active organizational forms",
@@ -58,6 +61,7 @@ public class OrgFormController {
         return ResponseEntity.ok(orgForms);
     }
 
+    @ConditionalGet(VersionedResource.ORG_FORMS)
     @GetMapping("/{id}")
     @Operation(
             summary = "Get organizational form by ID",
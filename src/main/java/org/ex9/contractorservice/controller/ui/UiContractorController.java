@@ -7,13 +7,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.ex9.contractorservice.dto.ErrorResponse;
 import org.ex9.contractorservice.dto.contractor.ContractorRequestDto;
 import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
 import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
 import org.ex9.contractorservice.service.ContractorService;
+import org.ex9.contractorservice.service.idempotency.IdempotencyService;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
 import org.ex9.contractorservice.utils.AuthInfo;
+import org.ex9.contractorservice.web.RateLimited;
+import org.ex9.contractorservice.web.VersionEtag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,18 +30,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
+import static org.ex9.contractorservice.service.idempotency.IdempotencyService.IDEMPOTENCY_KEY_HEADER;
+import static org.ex9.contractorservice.service.idempotency.IdempotencyService.REPLAYED_HEADER;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("ui/contractor")
 public class UiContractorController {
 
     private final ContractorService contractorService;
+    private final IdempotencyService idempotencyService;
+    private final ResourceVersionService resourceVersionService;
 
     @GetMapping("/contractor/{id}")
     @PreAuthorize("hasAnyAuthority('CONTRACTOR_SUPERUSER', 'SUPERUSER')")
@@ -64,7 +77,11 @@ public class UiContractorController {
             )
     })
     public ResponseEntity<ContractorResponseDto> getContractorById(@PathVariable @NotNull String id) {
-        return ResponseEntity.ok(contractorService.findById(id));
+        ContractorResponseDto contractor = contractorService.findById(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(VersionEtag.of(contractor.getVersion(), resourceVersionService.referencesStamp()))
+                .body(contractor);
     }
 
     @DeleteMapping("/contractor/delete/{id}")
@@ -134,14 +151,23 @@ public class UiContractorController {
                     )
             )
     })
-    public ResponseEntity<ContractorResponseDto> saveContractor(@RequestBody @NotNull ContractorRequestDto request) {
+    public ResponseEntity<ContractorResponseDto> saveContractor(@RequestBody @NotNull ContractorRequestDto request,
+                                                                @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                                @Size(max = 255) String idempotencyKey,
+                                                                @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         String userId = AuthInfo.getUsername();
+        Long expectedVersion = VersionEtag.parseIfMatch(ifMatch);
 
-        var resp = contractorService.save(request, userId);
+        var result = idempotencyService.execute(idempotencyKey, request, ContractorResponseDto.class,
+                () -> contractorService.save(request, userId, expectedVersion));
 
-        return ResponseEntity.ok(resp);
+        return ResponseEntity.ok()
+                .eTag(VersionEtag.of(result.value().getVersion(), resourceVersionService.referencesStamp()))
+                .header(REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.value());
     }
 
+    @RateLimited("search")
     @PostMapping("/contractor/search")
     @PreAuthorize("hasAnyAuthority('CONTRACTOR_RUS', 'CONTRACTOR_SUPERUSER', 'SUPERUSER')")
     @Operation(summary = "Search contractors (protected)",
@@ -1,28 +1,50 @@
 package org.ex9.contractorservice.dao;
 
+import org.ex9.contractorservice.dto.contractor.ContractorChangeDto;
+import org.ex9.contractorservice.dto.contractor.ContractorFacetsDto;
+import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorSuggestionDto;
+import org.ex9.contractorservice.dto.contractor.FacetValueDto;
 import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
+import org.ex9.contractorservice.dto.contractor.SparseContractorResponseDto;
+import org.ex9.contractorservice.enums.ContractorField;
 import org.ex9.contractorservice.exception.ContractorNotFoundException;
+import org.ex9.contractorservice.exception.ContractorVersionConflictException;
 import org.ex9.contractorservice.mapper.ContractorMapper;
+import org.ex9.contractorservice.mapper.ContractorResponseRowMapper;
 import org.ex9.contractorservice.model.Contractor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Repository
 public class ContractorJdbcDao {
 
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
-    private static final String TEMPLATE = """
+    private static final String SELECT_COLUMNS = """
             SELECT c.id,
                    p.id as parentId,
                    p.name as parentName,
@@ -40,7 +62,11 @@ public class ContractorJdbcDao {
                    c.modify_date,
                    c.create_user_id,
                    c.modify_user_id,
-                   c.is_active
+                   c.is_active,
+                   c.version
+            """;
+
+    private static final String FROM_ACTIVE = """
             FROM contractor c
                 LEFT JOIN contractor p ON c.parent_id = p.id AND p.is_active = true
                 LEFT JOIN country co ON c.country = co.id AND co.is_active = true
@@ -49,18 +75,168 @@ public class ContractorJdbcDao {
             WHERE c.is_active = true
             """;
 
+    private static final String TEMPLATE = SELECT_COLUMNS + FROM_ACTIVE;
+
+    private static final String FIND_BY_ID = TEMPLATE + " AND c.id = :id";
+
+    private static final String FIND_BY_IDS = TEMPLATE + " AND c.id = ANY(:ids)";
+
+    /**
+     * Пакетный поиск по точному значению колонки ({@code inn} или {@code ogrn}): массив значений
+     * разворачивается через {@code unnest} и соединяется с частичным индексом по активным контрагентам.
+     */
+    private static final String LOOKUP_TEMPLATE = SELECT_COLUMNS.stripTrailing() + ",\n       v.value AS lookup_value\n" + """
+            FROM unnest(:values) AS v(value)
+                JOIN contractor c ON c.%s = v.value AND c.is_active = true
+                LEFT JOIN contractor p ON c.parent_id = p.id AND p.is_active = true
+                LEFT JOIN country co ON c.country = co.id AND co.is_active = true
+                LEFT JOIN industry ind ON c.industry = ind.id AND ind.is_active = true
+                LEFT JOIN org_form of ON c.org_form = of.id AND of.is_active = true
+            ORDER BY c.id
+            """;
+
+    private static final String LOOKUP_BY_INN = LOOKUP_TEMPLATE.formatted("inn");
+
+    private static final String LOOKUP_BY_OGRN = LOOKUP_TEMPLATE.formatted("ogrn");
+
+    private static final int FILTER_CONTRACTOR_ID = 1;
+    private static final int FILTER_PARENT_ID = 1 << 1;
+    private static final int FILTER_CONTRACTOR_SEARCH = 1 << 2;
+    private static final int FILTER_COUNTRY = 1 << 3;
+    private static final int FILTER_INDUSTRY = 1 << 4;
+    private static final int FILTER_ORG_FORM = 1 << 5;
+
+    /**
+     * Условия фильтров поиска, индекс условия совпадает с номером бита в маске фильтров.
+     */
+    private static final String[] FILTER_CONDITIONS = {
+            "c.id = :contractorId",
+            "c.parent_id = :parentId",
+            """
+            (LOWER(c.name) LIKE :contractorSearch OR
+             LOWER(c.name_full) LIKE :contractorSearch OR
+             LOWER(c.inn) LIKE :contractorSearch OR
+             LOWER(c.ogrn) LIKE :contractorSearch)""",
+            "LOWER(co.name) LIKE :country",
+            "c.industry = :industry",
+            "LOWER(of.name) LIKE :orgForm"
+    };
+
+    /**
+     * Заранее собранные тексты поискового запроса для каждой комбинации фильтров (64 варианта).
+     * Неизменный текст позволяет {@link NamedParameterJdbcTemplate} разбирать именованные параметры
+     * один раз (кеш разобранных запросов), а драйверу PostgreSQL — переиспользовать серверные
+     * подготовленные выражения для каждого варианта.
+     */
+    private static final String[] SEARCH_SQL = buildFilterVariants(TEMPLATE, " ORDER BY c.id OFFSET :offset LIMIT :limit");
+
+    private static final String[] COUNT_SQL = buildFilterVariants("SELECT count(*)\n" + FROM_ACTIVE, "");
+
+    private static final String[] ESTIMATE_SQL = buildFilterVariants("EXPLAIN SELECT 1\n" + FROM_ACTIVE, "");
+
+    private static final String[] FACET_SQL = buildFilterVariants("""
+            SELECT c.country AS country_id,
+                   c.industry AS industry_id,
+                   c.org_form AS org_form_id,
+                   GROUPING(c.country) AS no_country,
+                   GROUPING(c.industry) AS no_industry,
+                   count(*) AS cnt
+            """ + FROM_ACTIVE, """
+             GROUP BY GROUPING SETS ((c.country), (c.industry), (c.org_form))
+            HAVING (GROUPING(c.country) = 1 OR c.country IS NOT NULL)
+               AND (GROUPING(c.industry) = 1 OR c.industry IS NOT NULL)
+               AND (GROUPING(c.org_form) = 1 OR c.org_form IS NOT NULL)
+            ORDER BY cnt DESC""");
+
+    /**
+     * Поиск по префиксу названия. Выражение {@code lower(name) COLLATE "C"} совпадает с индексом
+     * {@code idx_contractor_name_prefix}, поэтому и фильтр {@code LIKE 'префикс%'}, и сортировка
+     * обслуживаются одним коротким проходом по индексу.
+     */
+    private static final String SUGGEST = """
+            SELECT c.id, c.name
+            FROM contractor c
+            WHERE c.is_active = true
+              AND lower(c.name) COLLATE "C" LIKE :prefix
+            ORDER BY lower(c.name) COLLATE "C"
+            LIMIT :limit
+            """;
+
+    /**
+     * Выборка изменений по водяному знаку {@code (время изменения, id)}. Возвращает и деактивированных
+     * контрагентов. Сравнение кортежей и сортировка совпадают с индексом {@code idx_contractor_changed_at}.
+     */
+    private static final String CHANGES_TEMPLATE = """
+            SELECT c.id,
+                   c.parent_id,
+                   c.name,
+                   c.name_full,
+                   c.inn,
+                   c.ogrn,
+                   co.name AS country_name,
+                   ind.name AS industry_name,
+                   of.name AS org_form_name,
+                   c.is_active,
+                   COALESCE(c.modify_date, c.create_date) AS changed_at
+            FROM contractor c
+                LEFT JOIN country co ON c.country = co.id
+                LEFT JOIN industry ind ON c.industry = ind.id
+                LEFT JOIN org_form of ON c.org_form = of.id
+            WHERE COALESCE(c.modify_date, c.create_date) < :until
+            """;
+
+    private static final String CHANGES_ORDER = " ORDER BY COALESCE(c.modify_date, c.create_date), c.id LIMIT :limit";
+
+    private static final String CHANGES_FROM_START = CHANGES_TEMPLATE + CHANGES_ORDER;
+
+    private static final String CHANGES_AFTER = CHANGES_TEMPLATE
+            + " AND (COALESCE(c.modify_date, c.create_date), c.id) > (:since, :afterId)" + CHANGES_ORDER;
+
+    private static final String UPDATE_IF_CHANGED = """
+            UPDATE contractor
+            SET parent_id = :parentId,
+                name = :name,
+                name_full = :nameFull,
+                inn = :inn,
+                ogrn = :ogrn,
+                country = :countryId,
+                industry = :industryId,
+                org_form = :orgFormId,
+                modify_date = clock_timestamp(),
+                modify_user_id = :modifyUserId,
+                version = version + 1
+            WHERE id = :id
+              AND (parent_id IS DISTINCT FROM :parentId
+                OR name IS DISTINCT FROM :name
+                OR name_full IS DISTINCT FROM :nameFull
+                OR inn IS DISTINCT FROM :inn
+                OR ogrn IS DISTINCT FROM :ogrn
+                OR country IS DISTINCT FROM :countryId
+                OR industry IS DISTINCT FROM :industryId
+                OR org_form IS DISTINCT FROM :orgFormId)
+            """;
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private static final String SPARSE_PARENT_JOIN = "\n    LEFT JOIN contractor p ON c.parent_id = p.id AND p.is_active = true";
+    private static final String SPARSE_COUNTRY_JOIN = "\n    LEFT JOIN country co ON c.country = co.id AND co.is_active = true";
+    private static final String SPARSE_ORG_FORM_JOIN = "\n    LEFT JOIN org_form of ON c.org_form = of.id AND of.is_active = true";
+
+    /**
+     * Тексты запросов с выборочным набором полей, ключ — {@link #sparseKey(Set, int, boolean)}.
+     * Набор вариантов ограничен комбинациями полей и фильтров, поэтому кеш не растёт бесконечно.
+     */
+    private final ConcurrentHashMap<Integer, String> sparseSql = new ConcurrentHashMap<>();
+
     @Autowired
     public ContractorJdbcDao(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
         this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
     }
 
     public Optional<Contractor> findById(String id) {
-
-        StringBuilder sql = new StringBuilder(TEMPLATE);
-        sql.append(" AND c.id = :id");
         try {
             SqlParameterSource namedParameters = new MapSqlParameterSource("id", id);
-            var contractor = namedParameterJdbcTemplate.queryForObject(sql.toString(), namedParameters, (rs, rowId) -> ContractorMapper.toContractor(rs));
+            var contractor = namedParameterJdbcTemplate.queryForObject(FIND_BY_ID, namedParameters, (rs, rowId) -> ContractorMapper.toContractor(rs));
             return Optional.of(contractor);
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
@@ -68,30 +244,96 @@ public class ContractorJdbcDao {
 
     }
 
+    /**
+     * Находит активного контрагента по идентификатору и сразу проецирует строку в DTO ответа,
+     * минуя промежуточные сущности.
+     *
+     * @param id уникальный идентификатор контрагента
+     * @return DTO {@link ContractorResponseDto} или пустой {@link Optional}, если контрагент не найден
+     */
+    public Optional<ContractorResponseDto> findResponseById(String id) {
+        List<ContractorResponseDto> result = namedParameterJdbcTemplate.query(FIND_BY_ID,
+                new MapSqlParameterSource("id", id), new ContractorResponseRowMapper());
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.getFirst());
+    }
+
+    /**
+     * Находит активных контрагентов по списку идентификаторов одним запросом.
+     * Список передаётся массивом, поэтому текст запроса не зависит от количества идентификаторов.
+     *
+     * @param ids идентификаторы контрагентов
+     * @return список DTO {@link ContractorResponseDto} найденных контрагентов в произвольном порядке
+     */
+    public List<ContractorResponseDto> findResponsesByIds(Collection<String> ids) {
+        return namedParameterJdbcTemplate.query(FIND_BY_IDS,
+                new MapSqlParameterSource("ids", ids.toArray(String[]::new)), new ContractorResponseRowMapper());
+    }
+
+    /**
+     * Находит активных контрагентов с указанными ИНН одним запросом.
+     *
+     * @param inns значения ИНН без повторов
+     * @return найденные контрагенты, сгруппированные по ИНН; значения без совпадений отсутствуют
+     */
+    public Map<String, List<ContractorResponseDto>> findResponsesByInns(Collection<String> inns) {
+        return lookup(LOOKUP_BY_INN, inns);
+    }
+
+    /**
+     * Находит активных контрагентов с указанными ОГРН одним запросом.
+     *
+     * @param ogrns значения ОГРН без повторов
+     * @return найденные контрагенты, сгруппированные по ОГРН; значения без совпадений отсутствуют
+     */
+    public Map<String, List<ContractorResponseDto>> findResponsesByOgrns(Collection<String> ogrns) {
+        return lookup(LOOKUP_BY_OGRN, ogrns);
+    }
+
     /**
      * Обновляет существующего контрагента в базе данных.
      * Обновляет все поля, кроме {@code create_date}.
-     * Поле {@code modify_date} устанавливается в текущую дату.
+     * Поле {@code modify_date} устанавливается по часам БД ({@code clock_timestamp()}).
      *
      * @param contractor сущность {@link Contractor} для обновления
      * @return обновлённая сущность {@link Contractor}
      * @throws ContractorNotFoundException если контрагент не найден после обновления
      */
     public Contractor update(Contractor contractor) {
-        String sql = """
-            UPDATE contractor
-            SET parent_id = :parentId,
-                name = :name,
-                name_full = :nameFull,
-                inn = :inn,
-                ogrn = :ogrn,
-                country = :countryId,
-                industry = :industryId,
-                org_form = :orgFormId,
-                modify_date = :modifyDate,
-                modify_user_id = :modifyUserId
-            WHERE id = :id
-            """;
+        return update(contractor, null);
+    }
+
+    /**
+     * Обновляет существующего контрагента, если его версия не изменилась с момента чтения клиентом.
+     * Проверка версии и запись выполняются одним {@code UPDATE}, поэтому блокировка строки
+     * не удерживается между чтением и сохранением. Каждое обновление увеличивает {@code version}.
+     *
+     * @param contractor      сущность {@link Contractor} для обновления
+     * @param expectedVersion ожидаемая версия строки; {@code null} — обновить без проверки версии
+     * @return обновлённая сущность {@link Contractor}
+     * @throws ContractorVersionConflictException если версия контрагента отличается от ожидаемой
+     * @throws ContractorNotFoundException        если контрагент не найден после обновления
+     * @see #updateIfChanged(Contractor, Long)
+     */
+    public Contractor update(Contractor contractor, Long expectedVersion) {
+        updateIfChanged(contractor, expectedVersion);
+        return findById(contractor.getId()).orElseThrow(() ->
+                new ContractorNotFoundException("Contractor with ID " + contractor.getId() + " not found after update"));
+    }
+
+    /**
+     * Обновляет контрагента, только если данные отличаются от сохранённых.
+     * Сравнение ({@code IS DISTINCT FROM}) выполняется в том же {@code UPDATE}: строка без изменений
+     * не перезаписывается, {@code modify_date} и {@code version} не меняются и не появляется мёртвая
+     * версия строки. Автор изменения в сравнении не участвует.
+     *
+     * @param contractor      сущность {@link Contractor} для обновления
+     * @param expectedVersion ожидаемая версия строки; {@code null} — обновить без проверки версии
+     * @return {@code true}, если строка изменена; {@code false}, если данные совпадают с сохранёнными
+     * @throws ContractorVersionConflictException если версия контрагента отличается от ожидаемой
+     * @throws ContractorNotFoundException        если активный контрагент не найден
+     */
+    public boolean updateIfChanged(Contractor contractor, Long expectedVersion) {
+        String sql = UPDATE_IF_CHANGED + (expectedVersion != null ? " AND version = :version" : "");
 
         MapSqlParameterSource params = new MapSqlParameterSource();
         params.addValue("id", contractor.getId());
@@ -103,12 +345,20 @@ public class ContractorJdbcDao {
         params.addValue("countryId", contractor.getCountry() != null ? contractor.getCountry().getId() : null);
         params.addValue("industryId", contractor.getIndustry() != null ? contractor.getIndustry().getId() : null);
         params.addValue("orgFormId", contractor.getOrgForm() != null ? contractor.getOrgForm().getId() : null);
-        params.addValue("modifyDate", LocalDateTime.now());
         params.addValue("modifyUserId", contractor.getModifyUserId() != null ? contractor.getModifyUserId() : null);
+        params.addValue("version", expectedVersion);
 
-        namedParameterJdbcTemplate.update(sql, params);
-        return findById(contractor.getId()).orElseThrow(() ->
-                new ContractorNotFoundException("Contractor with ID " + contractor.getId() + " not found after update"));
+        if (namedParameterJdbcTemplate.update(sql, params) > 0) {
+            return true;
+        }
+        // строка не изменена: данные совпадают, версия устарела или контрагента нет
+        Contractor current = findById(contractor.getId()).orElseThrow(() ->
+                new ContractorNotFoundException("Contractor with ID " + contractor.getId() + " not found"));
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new ContractorVersionConflictException("Contractor with ID " + contractor.getId()
+                    + " was modified by another request, expected version " + expectedVersion);
+        }
+        return false;
     }
 
     /**
@@ -154,51 +404,345 @@ public class ContractorJdbcDao {
      * @return {@link Page} с найденными контрагентами
      */
     public List<Contractor> search(SearchContractorRequestDto request) {
-        StringBuilder sql = new StringBuilder(TEMPLATE);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int mask = bindFilters(request, params);
+        bindPage(params, request.getPage() * request.getSize(), request.getSize());
+        return namedParameterJdbcTemplate.query(SEARCH_SQL[mask], params, (rs, rowNum) -> ContractorMapper.toContractor(rs));
+    }
+
+    /**
+     * Выполняет поиск активных контрагентов с фильтрацией и пагинацией
+     * и проецирует строки сразу в DTO ответа, минуя промежуточные сущности.
+     *
+     * @param request параметры фильтрации
+     * @return список DTO {@link ContractorResponseDto} найденных контрагентов
+     */
+    public List<ContractorResponseDto> searchResponses(SearchContractorRequestDto request) {
+        return searchResponses(request, request.getSize());
+    }
+
+    /**
+     * Выполняет поиск активных контрагентов, начиная со смещения страницы из запроса,
+     * но с явно заданным количеством строк. Используется для выборки {@code size + 1} строк,
+     * чтобы определить наличие следующей страницы без подсчёта общего количества.
+     *
+     * @param request параметры фильтрации и пагинации
+     * @param limit   максимальное количество возвращаемых строк
+     * @return список DTO {@link ContractorResponseDto} найденных контрагентов
+     */
+    public List<ContractorResponseDto> searchResponses(SearchContractorRequestDto request, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int mask = bindFilters(request, params);
+        bindPage(params, request.getPage() * request.getSize(), limit);
+        return namedParameterJdbcTemplate.query(SEARCH_SQL[mask], params, new ContractorResponseRowMapper());
+    }
+
+    /**
+     * Находит активного контрагента по идентификатору, читая только запрошенные поля
+     * и версию строки (для ETag).
+     *
+     * @param id     уникальный идентификатор контрагента
+     * @param fields запрошенные поля
+     * @return DTO {@link SparseContractorResponseDto} или пустой {@link Optional}, если контрагент не найден
+     * @see #searchSparse(SearchContractorRequestDto, int, Set)
+     */
+    public Optional<SparseContractorResponseDto> findSparseById(String id, Set<ContractorField> fields) {
+        String sql = sparseSql.computeIfAbsent(sparseKey(fields, 0, true), key -> buildSparseSql(fields, 0, true));
+        List<SparseContractorResponseDto> result = namedParameterJdbcTemplate.query(sql,
+                new MapSqlParameterSource("id", id), (rs, rowNum) -> {
+                    SparseContractorResponseDto contractor = toSparse(rs, fields);
+                    contractor.setVersion(rs.getLong("version"));
+                    return contractor;
+                });
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.getFirst());
+    }
+
+    /**
+     * Выполняет поиск активных контрагентов, читая только запрошенные поля.
+     * <p>Соединение с родительским контрагентом выполняется, только если запрошен {@code parentId},
+     * со странами и организационными формами — только при фильтре по их названию. Для страны,
+     * производства и организационной формы читаются идентификаторы из строки контрагента,
+     * названия подставляет сервис из справочников. Если запрошены только колонки индекса
+     * {@code idx_contractor_active_listing}, запрос без фильтров выполняется сканированием только индекса.</p>
+     *
+     * @param request параметры фильтрации и пагинации
+     * @param limit   максимальное количество возвращаемых строк
+     * @param fields  запрошенные поля
+     * @return список DTO {@link SparseContractorResponseDto} найденных контрагентов
+     */
+    public List<SparseContractorResponseDto> searchSparse(SearchContractorRequestDto request, int limit, Set<ContractorField> fields) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int mask = bindFilters(request, params);
+        bindPage(params, request.getPage() * request.getSize(), limit);
+        String sql = sparseSql.computeIfAbsent(sparseKey(fields, mask, false), key -> buildSparseSql(fields, mask, false));
+        return namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) -> toSparse(rs, fields));
+    }
+
+    /**
+     * Считает точное количество активных контрагентов, удовлетворяющих фильтрам запроса.
+     *
+     * @param request параметры фильтрации (пагинация не учитывается)
+     * @return количество найденных контрагентов
+     */
+    public long count(SearchContractorRequestDto request) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int mask = bindFilters(request, params);
+        Long count = namedParameterJdbcTemplate.queryForObject(COUNT_SQL[mask], params, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Возвращает оценку количества активных контрагентов, удовлетворяющих фильтрам запроса,
+     * по данным планировщика PostgreSQL ({@code EXPLAIN}) без выполнения самого запроса.
+     *
+     * @param request параметры фильтрации (пагинация не учитывается)
+     * @return оценка количества строк или {@code 0}, если план не содержит оценки
+     */
+    public long estimateCount(SearchContractorRequestDto request) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int mask = bindFilters(request, params);
+        List<String> plan = namedParameterJdbcTemplate.query(ESTIMATE_SQL[mask], params, (rs, rowNum) -> rs.getString(1));
+        if (plan.isEmpty()) {
+            return 0L;
+        }
+        Matcher matcher = PLAN_ROWS.matcher(plan.getFirst());
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0L;
+    }
+
+    /**
+     * Считает найденных по фильтрам запроса активных контрагентов в разрезе стран, производств
+     * и организационных форм одним запросом с {@code GROUPING SETS}.
+     * Названия справочных значений не заполняются. Контрагенты без страны, производства
+     * или организационной формы в соответствующий фасет не попадают: группы с {@code NULL}
+     * отбрасываются в {@code HAVING}, поэтому у значения фасета всегда есть идентификатор.
+     *
+     * @param request параметры фильтрации (пагинация не учитывается)
+     * @return DTO {@link ContractorFacetsDto} с количеством контрагентов по каждому значению, по убыванию количества
+     */
+    public ContractorFacetsDto facetCounts(SearchContractorRequestDto request) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int mask = bindFilters(request, params);
+        ContractorFacetsDto facets = new ContractorFacetsDto();
+        namedParameterJdbcTemplate.query(FACET_SQL[mask], params, (RowCallbackHandler) rs -> {
+            long count = rs.getLong("cnt");
+            if (rs.getInt("no_country") == 0) {
+                facets.getCountries().add(new FacetValueDto(rs.getString("country_id"), null, count));
+            } else if (rs.getInt("no_industry") == 0) {
+                facets.getIndustries().add(new FacetValueDto(rs.getString("industry_id"), null, count));
+            } else {
+                facets.getOrgForms().add(new FacetValueDto(rs.getString("org_form_id"), null, count));
+            }
+        });
+        return facets;
+    }
+
+    /**
+     * Находит активных контрагентов, название которых начинается с указанного префикса
+     * (без учёта регистра). Время выполнения запроса ограничено {@code statement_timeout}
+     * в рамках текущей транзакции.
+     *
+     * @param prefix           префикс названия
+     * @param limit            максимальное количество подсказок
+     * @param statementTimeout ограничение времени выполнения запроса в формате PostgreSQL, например {@code 100ms}
+     * @return список DTO {@link ContractorSuggestionDto}, упорядоченный по названию
+     */
+    public List<ContractorSuggestionDto> suggest(String prefix, int limit, String statementTimeout) {
+        namedParameterJdbcTemplate.queryForObject("SELECT set_config('statement_timeout', :timeout, true)",
+                new MapSqlParameterSource("timeout", statementTimeout), String.class);
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("prefix", escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%");
+        params.addValue("limit", limit);
+        return namedParameterJdbcTemplate.query(SUGGEST, params,
+                (rs, rowNum) -> new ContractorSuggestionDto(rs.getString(1), rs.getString(2)));
+    }
+
+    /**
+     * Возвращает текущее время по часам БД. По этим же часам ставятся {@code create_date}
+     * и {@code modify_date}, поэтому граница выборки изменений не зависит от расхождения
+     * часов экземпляров сервиса и БД.
+     *
+     * @return текущее время БД без часового пояса
+     */
+    public LocalDateTime currentTimestamp() {
+        return namedParameterJdbcTemplate.queryForObject("SELECT clock_timestamp()::timestamp", Map.of(), LocalDateTime.class);
+    }
 
+    /**
+     * Находит контрагентов (в том числе деактивированных), изменённых после водяного знака,
+     * в порядке {@code (время изменения, id)}.
+     *
+     * @param since   время изменения из водяного знака; {@code null} — с самого начала
+     * @param afterId идентификатор контрагента из водяного знака; {@code null} — все контрагенты с временем {@code since}
+     * @param until   верхняя граница времени изменения (не включительно)
+     * @param limit   максимальное количество строк
+     * @return список DTO {@link ContractorChangeDto}
+     */
+    public List<ContractorChangeDto> findChanges(LocalDateTime since, String afterId, LocalDateTime until, int limit) {
         MapSqlParameterSource params = new MapSqlParameterSource();
-        List<String> conditions = new ArrayList<>();
+        params.addValue("until", until);
+        params.addValue("limit", limit);
+        String sql = CHANGES_FROM_START;
+        if (since != null) {
+            sql = CHANGES_AFTER;
+            params.addValue("since", since);
+            params.addValue("afterId", afterId != null ? afterId : "");
+        }
+        return namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) -> new ContractorChangeDto(
+                rs.getString("id"),
+                rs.getString("parent_id"),
+                rs.getString("name"),
+                rs.getString("name_full"),
+                rs.getString("inn"),
+                rs.getString("ogrn"),
+                rs.getString("country_name"),
+                rs.getString("industry_name"),
+                rs.getString("org_form_name"),
+                rs.getBoolean("is_active"),
+                rs.getTimestamp("changed_at").toLocalDateTime()));
+    }
+
+    private Map<String, List<ContractorResponseDto>> lookup(String sql, Collection<String> values) {
+        Map<String, List<ContractorResponseDto>> result = new HashMap<>();
+        ContractorResponseRowMapper mapper = new ContractorResponseRowMapper();
+        namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("values", values.toArray(String[]::new)), (RowCallbackHandler) rs -> {
+            result.computeIfAbsent(rs.getString("lookup_value"), value -> new ArrayList<>()).add(mapper.mapRow(rs, rs.getRow()));
+        });
+        return result;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static int bindFilters(SearchContractorRequestDto request, MapSqlParameterSource params) {
+        int mask = 0;
 
         if (request.getContractorId() != null && !request.getContractorId().isBlank()) {
-            conditions.add("c.id = :contractorId");
+            mask |= FILTER_CONTRACTOR_ID;
             params.addValue("contractorId", request.getContractorId());
         }
         if (request.getParentId() != null && !request.getParentId().isBlank()) {
-            conditions.add("c.parent_id = :parentId");
+            mask |= FILTER_PARENT_ID;
             params.addValue("parentId", request.getParentId());
         }
         if (request.getContractorSearch() != null && !request.getContractorSearch().isBlank()) {
-            String search = "%" + request.getContractorSearch().toLowerCase() + "%";
-            conditions.add("""
-                (LOWER(c.name) LIKE :contractorSearch OR
-                 LOWER(c.name_full) LIKE :contractorSearch OR
-                 LOWER(c.inn) LIKE :contractorSearch OR
-                 LOWER(c.ogrn) LIKE :contractorSearch)
-                """);
-            params.addValue("contractorSearch", search);
+            mask |= FILTER_CONTRACTOR_SEARCH;
+            params.addValue("contractorSearch", "%" + request.getContractorSearch().toLowerCase() + "%");
         }
         if (request.getCountry() != null && !request.getCountry().isBlank()) {
-            conditions.add("LOWER(co.name) LIKE :country");
+            mask |= FILTER_COUNTRY;
             params.addValue("country", "%" + request.getCountry().toLowerCase() + "%");
         }
         if (request.getIndustry() != null) {
-            conditions.add("c.industry = :industry");
+            mask |= FILTER_INDUSTRY;
             params.addValue("industry", request.getIndustry());
         }
         if (request.getOrgForm() != null && !request.getOrgForm().isBlank()) {
-            conditions.add("LOWER(of.name) LIKE :orgForm");
+            mask |= FILTER_ORG_FORM;
             params.addValue("orgForm", "%" + request.getOrgForm().toLowerCase() + "%");
         }
 
-        if (!conditions.isEmpty()) {
-            sql.append(" AND ").append(String.join(" AND ", conditions));
+        return mask;
+    }
+
+    private static void bindPage(MapSqlParameterSource params, int offset, int limit) {
+        params.addValue("offset", offset);
+        params.addValue("limit", limit);
+    }
+
+    private static int sparseKey(Set<ContractorField> fields, int filterMask, boolean byId) {
+        int fieldMask = 0;
+        for (ContractorField field : fields) {
+            fieldMask |= 1 << field.ordinal();
         }
+        return (fieldMask << (FILTER_CONDITIONS.length + 1)) | (filterMask << 1) | (byId ? 1 : 0);
+    }
 
-        sql.append(" ORDER BY c.id OFFSET :offset LIMIT :limit");
-        params.addValue("offset", request.getPage() * request.getSize());
-        params.addValue("limit", request.getSize());
+    private static String buildSparseSql(Set<ContractorField> fields, int filterMask, boolean byId) {
+        StringJoiner columns = new StringJoiner(", ", "SELECT ", "\nFROM contractor c");
+        for (ContractorField field : fields) {
+            columns.add(sparseColumn(field).select());
+        }
+        if (byId) {
+            // версия нужна для ETag; в поиске не читается, чтобы не мешать сканированию только индекса
+            columns.add("c.version");
+        }
 
-        return namedParameterJdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> ContractorMapper.toContractor(rs));
+        StringBuilder sql = new StringBuilder(columns.toString());
+        if (fields.contains(ContractorField.PARENT_ID)) {
+            sql.append(SPARSE_PARENT_JOIN);
+        }
+        if ((filterMask & FILTER_COUNTRY) != 0) {
+            sql.append(SPARSE_COUNTRY_JOIN);
+        }
+        if ((filterMask & FILTER_ORG_FORM) != 0) {
+            sql.append(SPARSE_ORG_FORM_JOIN);
+        }
+        sql.append("\nWHERE c.is_active = true");
+        if (byId) {
+            return sql.append(" AND c.id = :id").toString();
+        }
+        for (int bit = 0; bit < FILTER_CONDITIONS.length; bit++) {
+            if ((filterMask & (1 << bit)) != 0) {
+                sql.append(" AND ").append(FILTER_CONDITIONS[bit]);
+            }
+        }
+        return sql.append(" ORDER BY c.id OFFSET :offset LIMIT :limit").toString();
+    }
+
+    /**
+     * Колонка выборочного запроса для поля: выражение в {@code SELECT}, метка в результате и сеттер DTO.
+     * Switch-выражение без {@code default} проверяется компилятором на полноту, поэтому новое поле
+     * {@link ContractorField} без маппинга не скомпилируется.
+     * <p>{@code parentId} читается через соединение с активным родителем, а не из {@code c.parent_id}:
+     * так ссылка на удалённого родителя обнуляется так же, как в полном ответе.</p>
+     */
+    private static SparseColumn sparseColumn(ContractorField field) {
+        return switch (field) {
+            case ID -> new SparseColumn("c.id", "id", SparseContractorResponseDto::setId);
+            case PARENT_ID -> new SparseColumn("p.id AS parent_id", "parent_id", SparseContractorResponseDto::setParentId);
+            case NAME -> new SparseColumn("c.name", "name", SparseContractorResponseDto::setName);
+            case NAME_FULL -> new SparseColumn("c.name_full", "name_full", SparseContractorResponseDto::setNameFull);
+            case INN -> new SparseColumn("c.inn", "inn", SparseContractorResponseDto::setInn);
+            case OGRN -> new SparseColumn("c.ogrn", "ogrn", SparseContractorResponseDto::setOgrn);
+            case COUNTRY -> new SparseColumn("c.country", "country", SparseContractorResponseDto::setCountryId);
+            case INDUSTRY -> new SparseColumn("c.industry", "industry", SparseContractorResponseDto::setIndustryId);
+            case ORG_FORM -> new SparseColumn("c.org_form", "org_form", SparseContractorResponseDto::setOrgFormId);
+        };
+    }
+
+    private static SparseContractorResponseDto toSparse(ResultSet rs, Set<ContractorField> fields) throws SQLException {
+        SparseContractorResponseDto dto = new SparseContractorResponseDto();
+        for (ContractorField field : fields) {
+            SparseColumn column = sparseColumn(field);
+            column.setter().accept(dto, rs.getString(column.label()));
+        }
+        return dto;
+    }
+
+    private record SparseColumn(String select, String label, BiConsumer<SparseContractorResponseDto, String> setter) {
+    }
+
+    /**
+     * Собирает тексты запроса для всех комбинаций фильтров.
+     *
+     * @param prefix начало запроса, оканчивающееся условием {@code WHERE}
+     * @param suffix окончание запроса (сортировка, пагинация)
+     * @return массив запросов, индексированный маской фильтров
+     */
+    private static String[] buildFilterVariants(String prefix, String suffix) {
+        String[] variants = new String[1 << FILTER_CONDITIONS.length];
+        for (int mask = 0; mask < variants.length; mask++) {
+            StringBuilder sql = new StringBuilder(prefix);
+            for (int bit = 0; bit < FILTER_CONDITIONS.length; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    sql.append(" AND ").append(FILTER_CONDITIONS[bit]);
+                }
+            }
+            variants[mask] = sql.append(suffix).toString();
+        }
+        return variants;
     }
 
 }
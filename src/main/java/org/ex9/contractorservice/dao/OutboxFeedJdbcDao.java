@@ -0,0 +1,89 @@
+package org.ex9.contractorservice.dao;
+
+import org.ex9.contractorservice.dto.contractor.ContractorChangeEventDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO для чтения событий outbox_event в порядке их сквозного номера {@code seq}.
+ * @author Краковцев Артём
+ */
+@Repository
+public class OutboxFeedJdbcDao {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private static final String FIND_LAST_SEQ = "SELECT COALESCE(max(seq), 0) FROM outbox_event";
+
+    private static final String FIND_AFTER = """
+            SELECT seq, payload
+            FROM outbox_event
+            WHERE seq > :afterSeq
+            ORDER BY seq
+            LIMIT :limit
+            """;
+
+    private static final String FIND_BETWEEN = """
+            SELECT seq, payload
+            FROM outbox_event
+            WHERE seq > :afterSeq AND seq <= :upToSeq
+            ORDER BY seq
+            LIMIT :limit
+            """;
+
+    private static final RowMapper<ContractorChangeEventDto> EVENT_MAPPER =
+            (rs, rowNum) -> new ContractorChangeEventDto(rs.getLong("seq"), new String(rs.getBytes("payload"), StandardCharsets.UTF_8));
+
+    @Autowired
+    public OutboxFeedJdbcDao(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Возвращает номер последнего события.
+     *
+     * @return максимальный {@code seq} либо {@code 0}, если событий нет
+     */
+    public long findLastSeq() {
+        Long seq = namedParameterJdbcTemplate.queryForObject(FIND_LAST_SEQ, Map.of(), Long.class);
+        return seq != null ? seq : 0L;
+    }
+
+    /**
+     * Находит события с номером больше указанного.
+     *
+     * @param afterSeq номер последнего прочитанного события
+     * @param limit    максимальное количество событий
+     * @return события по возрастанию номера
+     */
+    public List<ContractorChangeEventDto> findAfter(long afterSeq, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("afterSeq", afterSeq);
+        params.addValue("limit", limit);
+        return namedParameterJdbcTemplate.query(FIND_AFTER, params, EVENT_MAPPER);
+    }
+
+    /**
+     * Находит события с номером в диапазоне {@code (afterSeq, upToSeq]}.
+     *
+     * @param afterSeq номер последнего полученного клиентом события
+     * @param upToSeq  номер последнего события, уже разосланного подписчикам
+     * @param limit    максимальное количество событий
+     * @return события по возрастанию номера
+     */
+    public List<ContractorChangeEventDto> findBetween(long afterSeq, long upToSeq, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("afterSeq", afterSeq);
+        params.addValue("upToSeq", upToSeq);
+        params.addValue("limit", limit);
+        return namedParameterJdbcTemplate.query(FIND_BETWEEN, params, EVENT_MAPPER);
+    }
+
+}
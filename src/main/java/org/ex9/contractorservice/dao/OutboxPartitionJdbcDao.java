@@ -0,0 +1,210 @@
+package org.ex9.contractorservice.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DAO для обслуживания суточных секций таблицы outbox_event.
+ * <p>Секции называются {@code outbox_event_pYYYYMMDD} и покрывают диапазон
+ * {@code [день, день + 1)} по колонке created_at. Строки вне созданных секций
+ * попадают в секцию по умолчанию {@code outbox_event_default}.</p>
+ * <p>Обслуживание секций выполняется под сессионной advisory-блокировкой, чтобы экземпляры
+ * сервиса, запускающие его по одному расписанию, не мешали друг другу.</p>
+ * @author Краковцев Артём
+ */
+@Repository
+public class OutboxPartitionJdbcDao {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private static final String PARTITION_PREFIX = "outbox_event_p";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{8})");
+
+    private static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String LIST_PARTITIONS = """
+            SELECT c.relname
+            FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = 'outbox_event'
+            """;
+
+    /**
+     * Создаёт секцию; если в секции по умолчанию уже есть строки её диапазона (например, перенесённые
+     * миграцией или вставленные, пока секции не было), они переносятся в новую таблицу, которая затем
+     * присоединяется как секция. Иначе {@code CREATE TABLE ... PARTITION OF} завершился бы ошибкой.
+     * Блок выполняется одной командой, поэтому атомарно.
+     */
+    private static final String CREATE_PARTITION = """
+            DO $$
+            BEGIN
+                IF to_regclass('%1$s') IS NOT NULL THEN
+                    RETURN;
+                END IF;
+                IF EXISTS (SELECT 1 FROM outbox_event_default WHERE created_at >= '%2$s' AND created_at < '%3$s') THEN
+                    CREATE TABLE %1$s (LIKE outbox_event INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+                    WITH moved AS (
+                        DELETE FROM outbox_event_default
+                        WHERE created_at >= '%2$s' AND created_at < '%3$s'
+                        RETURNING *
+                    )
+                    INSERT INTO %1$s SELECT * FROM moved;
+                    ALTER TABLE outbox_event ATTACH PARTITION %1$s FOR VALUES FROM ('%2$s') TO ('%3$s');
+                ELSE
+                    CREATE TABLE %1$s PARTITION OF outbox_event FOR VALUES FROM ('%2$s') TO ('%3$s');
+                END IF;
+            END $$
+            """;
+
+    /**
+     * Отсоединяет секцию, ожидая блокировку родительской таблицы не дольше {@code lock_timeout}.
+     * {@code DETACH PARTITION ... CONCURRENTLY} PostgreSQL не допускает при наличии секции по умолчанию,
+     * поэтому ожидание ограничено: отсоединение не выстраивает за собой в очередь вставки событий,
+     * а при превышении тайм-аута секция будет удалена при следующем запуске.
+     */
+    private static final String DETACH_PARTITION = """
+            DO $$
+            BEGIN
+                PERFORM set_config('lock_timeout', '%2$s', true);
+                IF EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass('%1$s')) THEN
+                    ALTER TABLE outbox_event DETACH PARTITION %1$s;
+                END IF;
+            END $$
+            """;
+
+    private static final String PURGE_DEFAULT = """
+            DELETE FROM outbox_event_default
+            WHERE is_publish = true AND created_at < :before
+            """;
+
+    @Autowired
+    public OutboxPartitionJdbcDao(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Возвращает дни, для которых существуют суточные секции.
+     *
+     * @return список дней по возрастанию
+     */
+    public List<LocalDate> findPartitionDays() {
+        List<LocalDate> days = new ArrayList<>();
+        for (String name : namedParameterJdbcTemplate.queryForList(LIST_PARTITIONS, Map.of(), String.class)) {
+            parseDay(name).ifPresent(days::add);
+        }
+        days.sort(null);
+        return days;
+    }
+
+    /**
+     * Выполняет обслуживание секций, если его не выполняет другой экземпляр сервиса.
+     * Сессионная advisory-блокировка держится на отдельном соединении на всё время работы
+     * и снимается при его закрытии даже после сбоя.
+     *
+     * @param job обслуживание секций
+     * @return {@code false}, если блокировку держит другой экземпляр и обслуживание пропущено
+     */
+    public boolean runExclusively(Runnable job) {
+        Boolean completed = namedParameterJdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection -> {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(hashtext('outbox_event_retention'))")) {
+                return false;
+            }
+            try {
+                job.run();
+                return true;
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(hashtext('outbox_event_retention'))");
+            }
+        });
+        return Boolean.TRUE.equals(completed);
+    }
+
+    /**
+     * Создаёт суточную секцию, если её ещё нет, перенося в неё строки этого дня из секции по умолчанию.
+     *
+     * @param day день, который покрывает секция
+     */
+    public void createPartition(LocalDate day) {
+        namedParameterJdbcTemplate.getJdbcTemplate().execute(
+                CREATE_PARTITION.formatted(partitionName(day), day, day.plusDays(1)));
+    }
+
+    /**
+     * Проверяет, остались ли в секции неопубликованные события.
+     * Использует частичный индекс {@code idx_outbox_event_unpublished}.
+     *
+     * @param day день секции
+     * @return {@code true}, если в секции есть неопубликованные события
+     */
+    public boolean hasUnpublished(LocalDate day) {
+        Boolean exists = namedParameterJdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partitionName(day) + " WHERE is_publish = false)", Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Удаляет суточную секцию целиком. В отличие от DELETE не оставляет
+     * «мёртвых» строк и не требует последующего VACUUM. Секция сначала отсоединяется
+     * с ограниченным ожиданием блокировки, а удаляется уже отдельная таблица,
+     * поэтому {@code DROP} не блокирует outbox_event.
+     *
+     * @param day         день секции
+     * @param lockTimeout максимальное ожидание блокировки outbox_event при отсоединении
+     */
+    public void dropPartition(LocalDate day, Duration lockTimeout) {
+        String name = partitionName(day);
+        JdbcTemplate jdbcTemplate = namedParameterJdbcTemplate.getJdbcTemplate();
+        jdbcTemplate.execute(DETACH_PARTITION.formatted(name, lockTimeout.toMillis() + "ms"));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+    }
+
+    /**
+     * Удаляет опубликованные события из секции по умолчанию.
+     *
+     * @param before граница времени создания событий
+     * @return количество удалённых строк
+     */
+    public int purgeDefaultPartition(LocalDateTime before) {
+        return namedParameterJdbcTemplate.update(PURGE_DEFAULT, new MapSqlParameterSource("before", before));
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_DATE);
+    }
+
+    private Optional<LocalDate> parseDay(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(LocalDate.parse(matcher.group(1), PARTITION_DATE));
+    }
+
+}
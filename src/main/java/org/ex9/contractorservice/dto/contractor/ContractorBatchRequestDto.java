@@ -0,0 +1,27 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO запроса пакетного получения контрагентов по списку идентификаторов.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch lookup of contractors by ID")
+public class ContractorBatchRequestDto {
+
+    @NotEmpty
+    @Size(max = 5000)
+    @Schema(description = "Contractor IDs, up to 5000; duplicates are ignored", example = "[\"CTR001\", \"CTR002\"]")
+    private List<@NotNull @Size(max = 12) String> ids;
+
+}
@@ -0,0 +1,26 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO ответа пакетного получения контрагентов.
+ * Найденные контрагенты и отсутствующие идентификаторы перечислены в порядке запроса.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Contractors found by a batch lookup and IDs that were not found")
+public class ContractorBatchResponseDto {
+
+    @Schema(description = "Active contractors in the order of the requested IDs")
+    private List<ContractorResponseDto> content;
+
+    @Schema(description = "Requested IDs with no active contractor, in request order", example = "[\"CTR404\"]")
+    private List<String> missing;
+
+}
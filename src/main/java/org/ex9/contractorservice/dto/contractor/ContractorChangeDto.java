@@ -0,0 +1,57 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO изменённого контрагента для инкрементальной синхронизации.
+ * В отличие от {@link ContractorResponseDto} содержит также деактивированных контрагентов
+ * и момент последнего изменения.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Contractor changed after the requested watermark, including deactivated ones")
+public class ContractorChangeDto {
+
+    @Schema(description = "Unique contractor identifier", example = "CTR")
+    private String id;
+
+    @Schema(description = "Unique parent contractor identifier", example = "CTR")
+    private String parentId;
+
+    @Schema(description = "Short name of contractor", example = "НКО АО НРД")
+    private String name;
+
+    @Schema(description = "Full name of contractor",
+            example = "Небанковская кредитная организация акционерное общество «Национальный расчетный депозитарий»")
+    private String nameFull;
+
+    @Schema(description = "INN of contractor", example = "7702165310")
+    private String inn;
+
+    @Schema(description = "OGRN of contractor", example = "1027739132563")
+    private String ogrn;
+
+    @Schema(description = "Country of contractor", example = "Russia")
+    private String country;
+
+    @Schema(description = "Industry of contractor", example = "Услуги финансового рынка")
+    private String industry;
+
+    @Schema(description = "Organizational form of contractor", example = "Акционерное общество")
+    private String orgForm;
+
+    @Schema(description = "False when the contractor has been deleted (deactivated)", example = "true")
+    private boolean active;
+
+    @Schema(description = "Time of the last change (modify_date, or create_date if never modified)", example = "2025-03-20T10:15:30.123456")
+    private LocalDateTime changedAt;
+
+}
@@ -0,0 +1,11 @@
+package org.ex9.contractorservice.dto.contractor;
+
+/**
+ * Событие ленты изменений контрагентов.
+ *
+ * @param seq     сквозной порядковый номер события в outbox_event (идентификатор события SSE)
+ * @param payload данные контрагента в формате JSON
+ */
+public record ContractorChangeEventDto(long seq, String payload) {
+
+}
@@ -0,0 +1,35 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO порции изменений контрагентов.
+ * Пара {@code nextSince}/{@code nextAfterId} передаётся в следующий запрос как водяной знак.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Batch of contractor changes with the watermark for the next request")
+public class ContractorChangesResponseDto {
+
+    @Schema(description = "Changed contractors ordered by (changedAt, id)")
+    private List<ContractorChangeDto> content;
+
+    @Schema(description = "Watermark time to pass as 'since' in the next request", example = "2025-03-20T10:15:30.123456", nullable = true)
+    private LocalDateTime nextSince;
+
+    @Schema(description = "Watermark contractor ID to pass as 'afterId' in the next request", example = "CTR", nullable = true)
+    private String nextAfterId;
+
+    @Schema(description = "Whether more changes are available right away", example = "false")
+    private boolean hasMore;
+
+}
@@ -0,0 +1,29 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO с количеством найденных контрагентов в разрезе стран, производств и организационных форм.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Counts of found contractors grouped by country, industry and organizational form")
+public class ContractorFacetsDto {
+
+    @Schema(description = "Counts by country")
+    private List<FacetValueDto> countries = new ArrayList<>();
+
+    @Schema(description = "Counts by industry")
+    private List<FacetValueDto> industries = new ArrayList<>();
+
+    @Schema(description = "Counts by organizational form")
+    private List<FacetValueDto> orgForms = new ArrayList<>();
+
+}
@@ -0,0 +1,29 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO запроса пакетного поиска контрагентов по точным значениям ИНН и ОГРН.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bulk lookup of contractors by exact INN and OGRN values")
+public class ContractorLookupRequestDto {
+
+    @Size(max = 5000)
+    @Schema(description = "INN values, up to 5000", example = "[\"7707083893\"]")
+    private List<@NotNull String> inns;
+
+    @Size(max = 5000)
+    @Schema(description = "OGRN values, up to 5000", example = "[\"1027700132195\"]")
+    private List<@NotNull String> ogrns;
+
+}
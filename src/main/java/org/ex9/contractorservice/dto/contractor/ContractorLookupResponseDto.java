@@ -0,0 +1,27 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO ответа пакетного поиска по ИНН и ОГРН.
+ * Ключи — запрошенные значения в порядке запроса; значению без совпадений соответствует пустой список.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Active contractors grouped by the requested INN and OGRN values")
+public class ContractorLookupResponseDto {
+
+    @Schema(description = "Contractors by requested INN; an empty list means no match")
+    private Map<String, List<ContractorResponseDto>> byInn;
+
+    @Schema(description = "Contractors by requested OGRN; an empty list means no match")
+    private Map<String, List<ContractorResponseDto>> byOgrn;
+
+}
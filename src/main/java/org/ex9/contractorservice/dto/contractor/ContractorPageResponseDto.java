@@ -0,0 +1,44 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO страницы результатов поиска контрагентов.
+ * Помимо самих результатов содержит признак следующей страницы и, по запросу,
+ * общее количество найденных контрагентов (точное или оценочное).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Page of contractors found by search with pagination metadata")
+public class ContractorPageResponseDto {
+
+    @Schema(description = "Contractors on the requested page")
+    private List<ContractorResponseDto> content;
+
+    @Schema(description = "Page number (starting from 0)", example = "0")
+    private int page;
+
+    @Schema(description = "Requested page size", example = "10")
+    private int size;
+
+    @Schema(description = "Whether the next page contains at least one contractor", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Total number of found contractors, null when totalMode is NONE", example = "1520", nullable = true)
+    private Long total;
+
+    @Schema(description = "Whether total is an exact count (true) or a planner estimate (false)", example = "false", nullable = true)
+    private Boolean totalExact;
+
+    @Schema(description = "Counts by country, industry and organizational form, null when facets are not requested", nullable = true)
+    private ContractorFacetsDto facets;
+
+}
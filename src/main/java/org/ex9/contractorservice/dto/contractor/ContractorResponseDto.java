@@ -1,5 +1,6 @@
 package org.ex9.contractorservice.dto.contractor;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -41,4 +42,8 @@ public class ContractorResponseDto {
     @Schema(description = "Organizational form of contractor", example = "Акционерное общество")
     private String orgForm;
 
+    @Schema(description = "Row version; pass it in If-Match to save only over this version", example = "3")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+
 }
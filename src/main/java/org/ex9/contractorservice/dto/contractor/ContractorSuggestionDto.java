@@ -0,0 +1,23 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Компактный DTO подсказки для автодополнения названия контрагента.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Contractor name suggestion for autocomplete")
+public class ContractorSuggestionDto {
+
+    @Schema(description = "Unique contractor identifier", example = "CTR")
+    private String id;
+
+    @Schema(description = "Short name of contractor", example = "НКО АО НРД")
+    private String name;
+
+}
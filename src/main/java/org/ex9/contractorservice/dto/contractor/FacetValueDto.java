@@ -0,0 +1,27 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO значения фасета: идентификатор справочного значения, его название
+ * и количество контрагентов с этим значением среди найденных.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Reference value with the number of found contractors having it")
+public class FacetValueDto {
+
+    @Schema(description = "Reference identifier as string (country id, industry id or organizational form id)", example = "RUS")
+    private String id;
+
+    @Schema(description = "Reference name resolved from cached reference data", example = "Российская Федерация", nullable = true)
+    private String name;
+
+    @Schema(description = "Number of found contractors with this value", example = "42")
+    private long count;
+
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.ex9.contractorservice.enums.SearchTotalMode;
 
 /**
  * DTO для запроса поиска контрагентов с фильтрацией и пагинацией.
@@ -48,4 +49,10 @@ public class SearchContractorRequestDto {
     @Min(value = 1)
     private Integer size;
 
+    @Schema(description = "Total count mode for paged search: NONE, EXACT, ESTIMATE or AUTO", example = "AUTO", nullable = true)
+    private SearchTotalMode totalMode;
+
+    @Schema(description = "Whether to return counts by country, industry and organizational form for paged search", example = "false", nullable = true)
+    private Boolean facets;
+
 }
@@ -0,0 +1,33 @@
+package org.ex9.contractorservice.dto.contractor;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * DTO контрагента с выборочным набором полей (параметр {@code fields}).
+ * Незапрошенные поля не попадают в JSON. Идентификаторы справочников читаются из строки
+ * контрагента и заменяются названиями из закешированных справочников без соединений в SQL.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Contractor with only the requested fields")
+public class SparseContractorResponseDto extends ContractorResponseDto {
+
+    @JsonIgnore
+    private String countryId;
+
+    @JsonIgnore
+    private String industryId;
+
+    @JsonIgnore
+    private String orgFormId;
+
+}
@@ -0,0 +1,66 @@
+package org.ex9.contractorservice.enums;
+
+import org.ex9.contractorservice.exception.InvalidFieldsException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Поля контрагента, которые можно запросить параметром {@code fields}.
+ * Имя поля совпадает с именем свойства в JSON-ответе.
+ * @author Краковцев Артём
+ */
+public enum ContractorField {
+
+    ID("id"),
+    PARENT_ID("parentId"),
+    NAME("name"),
+    NAME_FULL("nameFull"),
+    INN("inn"),
+    OGRN("ogrn"),
+    COUNTRY("country"),
+    INDUSTRY("industry"),
+    ORG_FORM("orgForm");
+
+    private final String fieldName;
+
+    ContractorField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Разбирает список полей, перечисленных через запятую.
+     *
+     * @param fields значение параметра {@code fields}, например {@code id,name,inn}
+     * @return набор запрошенных полей или {@code null}, если параметр не задан (нужны все поля)
+     * @throws InvalidFieldsException если указано неизвестное поле
+     */
+    public static Set<ContractorField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<ContractorField> result = EnumSet.noneOf(ContractorField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            result.add(byName(trimmed));
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    private static ContractorField byName(String name) {
+        for (ContractorField field : values()) {
+            if (field.fieldName.equals(name)) {
+                return field;
+            }
+        }
+        throw new InvalidFieldsException("Unknown contractor field " + name);
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.ex9.contractorservice.enums;
+
+/**
+ * Режим подсчёта общего количества найденных контрагентов при постраничном поиске.
+ * @author Краковцев Артём
+ */
+public enum SearchTotalMode {
+
+    /** Общее количество не считается, возвращается только признак следующей страницы */
+    NONE,
+
+    /** Точный подсчёт через {@code COUNT(*)} */
+    EXACT,
+
+    /** Оценка планировщика PostgreSQL без выполнения запроса */
+    ESTIMATE,
+
+    /** Оценка планировщика, уточняемая точным подсчётом, если выборка достаточно селективна */
+    AUTO
+
+}
@@ -0,0 +1,13 @@
+package org.ex9.contractorservice.enums;
+
+/**
+ * Ресурсы, версия которых используется для формирования ETag.
+ * @author Краковцев Артём
+ */
+public enum VersionedResource {
+
+    COUNTRIES,
+    INDUSTRIES,
+    ORG_FORMS
+
+}
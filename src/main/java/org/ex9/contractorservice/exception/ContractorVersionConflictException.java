@@ -0,0 +1,21 @@
+package org.ex9.contractorservice.exception;
+
+/**
+ * Исключение, выбрасываемое, если контрагент изменён после того, как клиент прочитал версию,
+ * переданную в {@code If-Match}.
+ * @author Краковцев Артём
+ */
+public class ContractorVersionConflictException extends RuntimeException {
+
+    /**
+     * Создаёт новое исключение с указанным сообщением.
+     *
+     * @param message сообщение, описывающее причину исключения
+     */
+    public ContractorVersionConflictException(String message) {
+
+        super(message);
+
+    }
+
+}
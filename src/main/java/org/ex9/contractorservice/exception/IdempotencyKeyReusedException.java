@@ -0,0 +1,20 @@
+package org.ex9.contractorservice.exception;
+
+/**
+ * Исключение, выбрасываемое, если ключ идемпотентности уже использован для запроса с другим телом.
+ * @author Краковцев Артём
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    /**
+     * Создаёт новое исключение с указанным сообщением.
+     *
+     * @param message сообщение, описывающее причину исключения
+     */
+    public IdempotencyKeyReusedException(String message) {
+
+        super(message);
+
+    }
+
+}
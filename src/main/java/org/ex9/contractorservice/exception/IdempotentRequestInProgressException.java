@@ -0,0 +1,21 @@
+package org.ex9.contractorservice.exception;
+
+/**
+ * Исключение, выбрасываемое, если запрос с тем же ключом идемпотентности всё ещё выполняется
+ * и не завершился за время ожидания.
+ * @author Краковцев Артём
+ */
+public class IdempotentRequestInProgressException extends RuntimeException {
+
+    /**
+     * Создаёт новое исключение с указанным сообщением.
+     *
+     * @param message сообщение, описывающее причину исключения
+     */
+    public IdempotentRequestInProgressException(String message) {
+
+        super(message);
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.ex9.contractorservice.exception;
+
+/**
+ * Исключение, выбрасываемое при запросе неизвестного поля контрагента в параметре {@code fields}.
+ * @author Краковцев Артём
+ */
+public class InvalidFieldsException extends RuntimeException {
+
+    /**
+     * Создаёт новое исключение с указанным сообщением.
+     *
+     * @param message сообщение, описывающее причину исключения
+     */
+    public InvalidFieldsException(String message) {
+
+        super(message);
+
+    }
+
+}
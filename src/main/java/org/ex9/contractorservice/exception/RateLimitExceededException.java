@@ -0,0 +1,30 @@
+package org.ex9.contractorservice.exception;
+
+import java.time.Duration;
+
+/**
+ * Исключение, выбрасываемое при превышении клиентом лимита запросов.
+ * @author Краковцев Артём
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Создаёт новое исключение с указанным сообщением.
+     *
+     * @param message    сообщение, описывающее причину исключения
+     * @param retryAfter через сколько клиент может повторить запрос
+     */
+    public RateLimitExceededException(String message, Duration retryAfter) {
+
+        super(message);
+        this.retryAfter = retryAfter;
+
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
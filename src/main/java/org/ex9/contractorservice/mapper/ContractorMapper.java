@@ -29,6 +29,7 @@ public final class ContractorMapper {
                 .country(contractor.getCountry().getName())
                 .industry(contractor.getIndustry().getName())
                 .orgForm(contractor.getOrgForm().getName())
+                .version(contractor.getVersion())
                 .build();
     }
 
@@ -64,6 +65,7 @@ public final class ContractorMapper {
         contractorBuilder.modifyDate(rs.getDate("modify_date"));
         contractorBuilder.createUserId(rs.getString("create_user_id"));
         contractorBuilder.modifyUserId(rs.getString("modify_user_id"));
+        contractorBuilder.version(rs.getLong("version"));
 
         Country country = Country.builder()
                 .id(rs.getString("countryid"))
@@ -0,0 +1,72 @@
+package org.ex9.contractorservice.mapper;
+
+import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Маппер строк {@link ResultSet} напрямую в {@link ContractorResponseDto}.
+ * <p>В отличие от {@link ContractorMapper#toContractor(ResultSet)} не создаёт промежуточные
+ * сущности контрагента, страны, производства и организационной формы, а индексы колонок
+ * вычисляет один раз на каждый {@link ResultSet}. Экземпляр хранит состояние,
+ * поэтому создаётся заново на каждый запрос.</p>
+ * @author Краковцев Артём
+ */
+public final class ContractorResponseRowMapper implements RowMapper<ContractorResponseDto> {
+
+    private ResultSet resolvedFor;
+
+    private int idIndex;
+    private int parentIdIndex;
+    private int nameIndex;
+    private int nameFullIndex;
+    private int innIndex;
+    private int ogrnIndex;
+    private int countryNameIndex;
+    private int industryNameIndex;
+    private int orgFormNameIndex;
+    private int versionIndex;
+
+    /**
+     * Преобразует текущую строку {@link ResultSet} в DTO {@link ContractorResponseDto}.
+     *
+     * @param rs     результат запроса, спозиционированный на текущей строке
+     * @param rowNum номер строки
+     * @return DTO {@link ContractorResponseDto} с данными контрагента
+     * @throws SQLException если колонка не найдена или не может быть прочитана
+     */
+    @Override
+    public ContractorResponseDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (rs != resolvedFor) {
+            resolveIndexes(rs);
+        }
+        return new ContractorResponseDto(
+                rs.getString(idIndex),
+                rs.getString(parentIdIndex),
+                rs.getString(nameIndex),
+                rs.getString(nameFullIndex),
+                rs.getString(innIndex),
+                rs.getString(ogrnIndex),
+                rs.getString(countryNameIndex),
+                rs.getString(industryNameIndex),
+                rs.getString(orgFormNameIndex),
+                rs.getLong(versionIndex));
+    }
+
+    private void resolveIndexes(ResultSet rs) throws SQLException {
+        idIndex = rs.findColumn("id");
+        parentIdIndex = rs.findColumn("parentid");
+        nameIndex = rs.findColumn("name");
+        nameFullIndex = rs.findColumn("name_full");
+        innIndex = rs.findColumn("inn");
+        ogrnIndex = rs.findColumn("ogrn");
+        countryNameIndex = rs.findColumn("countryname");
+        industryNameIndex = rs.findColumn("industryname");
+        orgFormNameIndex = rs.findColumn("orgformname");
+        versionIndex = rs.findColumn("version");
+        resolvedFor = rs;
+    }
+
+}
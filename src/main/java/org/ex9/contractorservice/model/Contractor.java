@@ -61,6 +61,9 @@ public class Contractor {
     @Column(value = "modify_user_id")
     private String modifyUserId;
 
+    @Column(value = "version")
+    private Long version;
+
     @Builder.Default
     @Column(value = "is_active")
     private Boolean isActive = true;
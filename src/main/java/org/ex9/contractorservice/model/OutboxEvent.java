@@ -32,9 +32,21 @@ public class OutboxEvent {
     @Column(value = "type")
     private EventType type;
 
-    /** Данные события в формате JSON */
+    /** Идентификатор контрагента, к которому относится событие */
+    @Column(value = "aggregate_id")
+    private String aggregateId;
+
+    /** Готовое тело сообщения RabbitMQ */
     @Column(value = "payload")
-    private String payload;
+    private byte[] payload;
+
+    /** Тип содержимого тела сообщения (заголовок content_type) */
+    @Column(value = "content_type")
+    private String contentType;
+
+    /** Имя класса тела сообщения (заголовок __TypeId__ для потребителей) */
+    @Column(value = "type_id")
+    private String typeId;
 
     /** Флаг, было ли событие опубликовано событие*/
     @Column(value = "is_publish")
@@ -18,11 +18,12 @@ public interface ContractorRepository extends CrudRepository<Contractor, String>
 
     /**
      * Выполняет логическое удаление контрагента по его идентификатору, устанавливая
-     * {@code is_active = false}.
+     * {@code is_active = false}. Время изменения обновляется, чтобы деактивация
+     * попала в выборку изменений.
      *
      * @param id уникальный идентификатор контрагента
      */
-    @Query("UPDATE contractor SET is_active=false WHERE id=:id")
+    @Query("UPDATE contractor SET is_active=false, modify_date=clock_timestamp(), version=version+1 WHERE id=:id")
     @Modifying
     void deleteById(@Param("id") String id);
 
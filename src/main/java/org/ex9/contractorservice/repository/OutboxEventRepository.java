@@ -1,9 +1,15 @@
 package org.ex9.contractorservice.repository;
 
 import org.ex9.contractorservice.model.OutboxEvent;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -12,4 +18,34 @@ import java.util.UUID;
  */
 @Repository
 public interface OutboxEventRepository extends CrudRepository<OutboxEvent, UUID> {
+
+    /**
+     * Находит неопубликованные события в порядке их создания.
+     *
+     * @param limit максимальное количество событий
+     * @return список неопубликованных событий
+     */
+    @Query("SELECT * FROM outbox_event WHERE is_publish = false ORDER BY created_at LIMIT :limit")
+    List<OutboxEvent> findUnpublished(@Param("limit") int limit);
+
+    /**
+     * Помечает события опубликованными.
+     *
+     * @param ids         идентификаторы событий
+     * @param publishedAt время публикации
+     */
+    @Query("UPDATE outbox_event SET is_publish = true, published_at = :publishedAt WHERE id IN (:ids)")
+    @Modifying
+    void markPublished(@Param("ids") Collection<UUID> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Пытается захватить транзакционную advisory-блокировку ретранслятора outbox,
+     * чтобы события публиковал только один экземпляр сервиса. Блокировка снимается
+     * по завершении текущей транзакции.
+     *
+     * @return {@code true}, если блокировка захвачена
+     */
+    @Query("SELECT pg_try_advisory_xact_lock(hashtext('outbox_event_relay'))")
+    boolean tryLockRelay();
+
 }
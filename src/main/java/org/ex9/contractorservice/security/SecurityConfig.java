@@ -28,7 +28,7 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/country/**", "/industry/**", "/orgform/**", "/contractor/**",
-                                "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                                "/swagger-ui/**", "/v3/api-docs/**", "/actuator/health/**").permitAll()
                         .requestMatchers("/ui/**").authenticated()
                         .anyRequest().authenticated()
                 )
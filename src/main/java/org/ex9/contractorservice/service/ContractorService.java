@@ -1,15 +1,26 @@
 package org.ex9.contractorservice.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.ex9.contractorservice.dao.ContractorJdbcDao;
+import org.ex9.contractorservice.dto.contractor.ContractorBatchResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorChangeDto;
+import org.ex9.contractorservice.dto.contractor.ContractorChangesResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorFacetsDto;
+import org.ex9.contractorservice.dto.contractor.ContractorLookupRequestDto;
+import org.ex9.contractorservice.dto.contractor.ContractorLookupResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorPageResponseDto;
 import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorSuggestionDto;
 import org.ex9.contractorservice.dto.contractor.ContractorRequestDto;
 import org.ex9.contractorservice.dto.country.CountryResponseDto;
+import org.ex9.contractorservice.dto.industry.IndustryResponseDto;
+import org.ex9.contractorservice.dto.orgform.OrgFormResponseDto;
 import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
-import org.ex9.contractorservice.dto.rabbit.ContractorDto;
+import org.ex9.contractorservice.dto.contractor.SparseContractorResponseDto;
+import org.ex9.contractorservice.enums.ContractorField;
+import org.ex9.contractorservice.enums.SearchTotalMode;
 import org.ex9.contractorservice.exception.ContractorNotFoundException;
+import org.ex9.contractorservice.exception.ContractorVersionConflictException;
 import org.ex9.contractorservice.exception.CountryNotFoundException;
 import org.ex9.contractorservice.exception.IndustryNotFoundException;
 import org.ex9.contractorservice.exception.OrgFormNotFoundException;
@@ -21,11 +32,25 @@ import org.ex9.contractorservice.repository.IndustryRepository;
 import org.ex9.contractorservice.repository.OrgFormRepository;
 import org.ex9.contractorservice.service.outbox.OutboxPublisher;
 import org.ex9.contractorservice.service.outbox.OutboxService;
+import org.ex9.contractorservice.service.search.ParallelQueryExecutor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -37,9 +62,27 @@ public class ContractorService {
     private final IndustryRepository industryRepository;
     private final OrgFormRepository orgFormRepository;
 
+    private final CountryService countryService;
+    private final IndustryService industryService;
+    private final OrgFormService orgFormService;
+
     private final OutboxService outboxService;
     private final OutboxPublisher outboxPublisher;
-    private final ObjectMapper objectMapper;
+
+    private final ParallelQueryExecutor parallelQueryExecutor;
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final int MAX_CHANGES = 5000;
+
+    @Value("${contractor.search.exact-count-threshold:10000}")
+    private long exactCountThreshold;
+
+    @Value("${contractor.suggest.statement-timeout:100ms}")
+    private String suggestStatementTimeout;
+
+    @Value("${contractor.changes.safety-lag:5s}")
+    private Duration changesSafetyLag;
 
     /**
      * Получает контрагента по её идентификатору.
@@ -49,8 +92,27 @@ public class ContractorService {
      * @throws ContractorNotFoundException если контрагента с указанным ID не существует
      */
     public ContractorResponseDto findById(String id) {
-        var contractor = contractorJdbcDao.findById(id).orElseThrow(() -> new ContractorNotFoundException("Contractor not found with id " + id));
-        return ContractorMapper.toDto(contractor);
+        return contractorJdbcDao.findResponseById(id)
+                .orElseThrow(() -> new ContractorNotFoundException("Contractor not found with id " + id));
+    }
+
+    /**
+     * Получает контрагента по идентификатору с выборочным набором полей.
+     * Названия страны, производства и организационной формы берутся из закешированных справочников.
+     *
+     * @param id     уникальный идентификатор контрагента
+     * @param fields запрошенные поля; {@code null} — все поля
+     * @return DTO {@link ContractorResponseDto} с запрошенными полями контрагента
+     * @throws ContractorNotFoundException если контрагента с указанным ID не существует
+     */
+    public ContractorResponseDto findById(String id, Set<ContractorField> fields) {
+        if (fields == null) {
+            return findById(id);
+        }
+        SparseContractorResponseDto contractor = contractorJdbcDao.findSparseById(id, fields)
+                .orElseThrow(() -> new ContractorNotFoundException("Contractor not found with id " + id));
+        resolveReferenceNames(List.of(contractor), fields);
+        return contractor;
     }
 
     /**
@@ -67,40 +129,7 @@ public class ContractorService {
      */
     @Transactional
     public ContractorResponseDto save(ContractorRequestDto request) {
-        if (request.getParentId() != null) {
-            contractorJdbcDao.findById(request.getParentId())
-                    .orElseThrow(() -> new ContractorNotFoundException("Parent contractor with ID " + request.getParentId() + " not found"));
-        }
-
-        countryRepository.findById(request.getCountryId())
-                .orElseThrow(() -> new CountryNotFoundException("Country with ID " + request.getCountryId() + " not found"));
-
-        industryRepository.findById(request.getIndustryId())
-                .orElseThrow(() -> new IndustryNotFoundException("Industry with ID " + request.getIndustryId() + " not found"));
-
-        orgFormRepository.findById(request.getOrgFormId())
-                .orElseThrow(() -> new OrgFormNotFoundException("OrgForm with ID " + request.getOrgFormId() + " not found"));
-
-        var c = ContractorMapper.toContractor(request);
-        if (contractorRepository.existsById(c.getId())) {
-            contractorJdbcDao.update(c);
-        } else {
-            contractorJdbcDao.insert(c);
-        }
-
-        var contractor = contractorJdbcDao.findById(c.getId())
-                .orElseThrow(() -> new ContractorNotFoundException("Contractor not found with id " + c.getId()));
-
-        OutboxEvent event = outboxService.saveEvent(contractor);
-        try {
-            ContractorDto dto = objectMapper.readValue(event.getPayload(), ContractorDto.class);
-            outboxPublisher.publish(dto);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
-        outboxService.markAsPublished(event);
-
-        return ContractorMapper.toDto(contractor);
+        return save(request, null, null);
     }
 
     /**
@@ -118,6 +147,28 @@ public class ContractorService {
      */
     @Transactional
     public ContractorResponseDto save(ContractorRequestDto request, String userId) {
+        return save(request, userId, null);
+    }
+
+    /**
+     * Создаёт нового контрагента или обновляет существующего с проверкой версии.
+     * Если задана ожидаемая версия, контрагент обновляется только при совпадении версии
+     * (условный {@code UPDATE}), и параллельные сохранения не перезаписывают друг друга.
+     * Если данные не отличаются от сохранённых, строка не перезаписывается, событие
+     * {@code contractor.updated} не отправляется и возвращается текущий контрагент.
+     *
+     * @param request         DTO {@link ContractorRequestDto} с данными для создания или обновления
+     * @param userId          идентификатор авторизированного пользователя; {@code null}, если неизвестен
+     * @param expectedVersion версия из {@code If-Match}; {@code null} — сохранить без проверки версии
+     * @return DTO {@link ContractorResponseDto} с данными и новой версией сохранённого контрагента
+     * @throws ContractorVersionConflictException если контрагент изменён или ещё не создан
+     * @throws ContractorNotFoundException        если контрагент не найден после сохранения
+     * @throws CountryNotFoundException           если страна не найдена после сохранения
+     * @throws IndustryNotFoundException          если производство с указанным идентификатором не существует
+     * @throws OrgFormNotFoundException           если организационная форма с указанным ID не существует
+     */
+    @Transactional
+    public ContractorResponseDto save(ContractorRequestDto request, String userId, Long expectedVersion) {
         if (request.getParentId() != null) {
             contractorJdbcDao.findById(request.getParentId())
                     .orElseThrow(() -> new ContractorNotFoundException("Parent contractor with ID " + request.getParentId() + " not found"));
@@ -133,9 +184,13 @@ public class ContractorService {
                 .orElseThrow(() -> new OrgFormNotFoundException("OrgForm with ID " + request.getOrgFormId() + " not found"));
 
         var c = ContractorMapper.toContractor(request);
+        boolean changed = true;
         if (contractorRepository.existsById(c.getId())) {
             c.setModifyUserId(userId);
-            contractorJdbcDao.update(c);
+            changed = contractorJdbcDao.updateIfChanged(c, expectedVersion);
+        } else if (expectedVersion != null) {
+            throw new ContractorVersionConflictException("Contractor with ID " + c.getId()
+                    + " does not exist, expected version " + expectedVersion);
         } else {
             c.setCreateUserId(userId);
             contractorJdbcDao.insert(c);
@@ -143,16 +198,15 @@ public class ContractorService {
 
         var contractor = contractorJdbcDao.findById(c.getId()).
                 orElseThrow(() -> new ContractorNotFoundException("Contractor not found with id " + c.getId()));
+        if (!changed) {
+            return ContractorMapper.toDto(contractor);
+        }
 
         OutboxEvent event = outboxService.saveEvent(contractor);
-        try {
-            ContractorDto dto = objectMapper.readValue(event.getPayload(), ContractorDto.class);
-            outboxPublisher.publish(dto);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+        if (!outboxService.publishesViaRelay()) {
+            outboxPublisher.publish(event);
+            outboxService.markAsPublished(event);
         }
-        outboxService.markAsPublished(event);
-
         return ContractorMapper.toDto(contractor);
     }
 
@@ -164,8 +218,275 @@ public class ContractorService {
      */
     @Transactional(readOnly = true)
     public List<ContractorResponseDto> search(SearchContractorRequestDto request) {
-        var result = contractorJdbcDao.search(request);
-        return result.stream().map(ContractorMapper::toDto).toList();
+        return contractorJdbcDao.searchResponses(request);
+    }
+
+    /**
+     * Выполняет поиск активных контрагентов с выборочным набором полей.
+     *
+     * @param request DTO {@link SearchContractorRequestDto} с параметрами фильтрации и пагинации
+     * @param fields  запрошенные поля; {@code null} — все поля
+     * @return список DTO {@link ContractorResponseDto} с запрошенными полями найденных контрагентов
+     * @see ContractorJdbcDao#searchSparse(SearchContractorRequestDto, int, Set)
+     */
+    @Transactional(readOnly = true)
+    public List<ContractorResponseDto> search(SearchContractorRequestDto request, Set<ContractorField> fields) {
+        if (fields == null) {
+            return search(request);
+        }
+        return searchRows(request, request.getSize(), fields);
+    }
+
+    /**
+     * Выполняет постраничный поиск активных контрагентов с признаком следующей страницы
+     * и, по запросу, общим количеством найденных контрагентов.
+     * <p>Признак следующей страницы вычисляется выборкой {@code size + 1} строк. Общее количество
+     * считается в зависимости от {@link SearchTotalMode}: точно, по оценке планировщика или
+     * в режиме {@code AUTO} — по оценке, уточняемой точным подсчётом, если оценка не превышает
+     * {@code contractor.search.exact-count-threshold}. Если следующей страницы нет, количество
+     * известно точно, и результат подсчёта не используется.</p>
+     * <p>Если запрошены фасеты, количество контрагентов по странам, производствам и организационным
+     * формам считается одним запросом, а названия берутся из закешированных справочников.</p>
+     * <p>Запрос страницы, подсчёт и фасеты выполняются одновременно на разных соединениях
+     * ({@link ParallelQueryExecutor}), поэтому время ответа близко к самому долгому из них, а не к их сумме.
+     * Ошибка одного запроса прерывает остальные. Метод выполняется вне транзакции: запросы
+     * идут на своих соединениях, и соединение вызывающего потока не удерживается впустую,
+     * пока они выполняются.</p>
+     *
+     * @param request DTO {@link SearchContractorRequestDto} с параметрами фильтрации, пагинации и режимом подсчёта
+     * @return DTO {@link ContractorPageResponseDto} со страницей результатов
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ContractorPageResponseDto searchPage(SearchContractorRequestDto request) {
+        return searchPage(request, null);
+    }
+
+    /**
+     * Выполняет постраничный поиск активных контрагентов с выборочным набором полей.
+     *
+     * @param request DTO {@link SearchContractorRequestDto} с параметрами фильтрации, пагинации и режимом подсчёта
+     * @param fields  запрошенные поля; {@code null} — все поля
+     * @return DTO {@link ContractorPageResponseDto} со страницей результатов
+     * @see #searchPage(SearchContractorRequestDto)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ContractorPageResponseDto searchPage(SearchContractorRequestDto request, Set<ContractorField> fields) {
+        int size = request.getSize();
+        long offset = (long) request.getPage() * size;
+        SearchTotalMode mode = request.getTotalMode() != null ? request.getTotalMode() : SearchTotalMode.NONE;
+
+        try (ParallelQueryExecutor.Scope scope = parallelQueryExecutor.open()) {
+            var rowsQuery = scope.fork(() -> fields == null
+                    ? contractorJdbcDao.searchResponses(request, size + 1)
+                    : searchRows(request, size + 1, fields));
+            var facetsQuery = Boolean.TRUE.equals(request.getFacets())
+                    ? scope.fork(() -> contractorJdbcDao.facetCounts(request))
+                    : null;
+            var totalQuery = mode != SearchTotalMode.NONE
+                    ? scope.fork(() -> countTotal(request, mode))
+                    : null;
+
+            List<ContractorResponseDto> rows = rowsQuery.get();
+            boolean hasNext = rows.size() > size;
+            List<ContractorResponseDto> content = hasNext ? rows.subList(0, size) : rows;
+
+            var page = ContractorPageResponseDto.builder()
+                    .content(content)
+                    .page(request.getPage())
+                    .size(size)
+                    .hasNext(hasNext);
+
+            if (facetsQuery != null) {
+                page.facets(resolveFacetNames(facetsQuery.get()));
+            }
+
+            if (totalQuery == null) {
+                return page.build();
+            }
+
+            if (!hasNext && (!content.isEmpty() || offset == 0)) {
+                totalQuery.cancel(false);
+                return page.total(offset + content.size()).totalExact(true).build();
+            }
+
+            long lowerBound = offset + content.size() + (hasNext ? 1 : 0);
+            PageTotal total = totalQuery.get();
+            return page.total(total.exact() ? total.value() : Math.max(total.value(), lowerBound))
+                    .totalExact(total.exact())
+                    .build();
+        }
+    }
+
+    private PageTotal countTotal(SearchContractorRequestDto request, SearchTotalMode mode) {
+        return switch (mode) {
+            case EXACT -> new PageTotal(contractorJdbcDao.count(request), true);
+            case ESTIMATE -> new PageTotal(contractorJdbcDao.estimateCount(request), false);
+            default -> {
+                long estimate = contractorJdbcDao.estimateCount(request);
+                yield estimate <= exactCountThreshold
+                        ? new PageTotal(contractorJdbcDao.count(request), true)
+                        : new PageTotal(estimate, false);
+            }
+        };
+    }
+
+    /**
+     * Возвращает подсказки для автодополнения: активных контрагентов, название которых
+     * начинается с указанного префикса (без учёта регистра).
+     *
+     * @param prefix введённое пользователем начало названия
+     * @param limit  максимальное количество подсказок (от 1 до 50)
+     * @return список DTO {@link ContractorSuggestionDto}, упорядоченный по названию; пустой список для пустого префикса
+     */
+    @Transactional(readOnly = true)
+    public List<ContractorSuggestionDto> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        return contractorJdbcDao.suggest(prefix.stripLeading(), boundedLimit, suggestStatementTimeout);
+    }
+
+    /**
+     * Возвращает порцию контрагентов, изменённых после водяного знака, включая деактивированных.
+     * <p>Изменения моложе {@code contractor.changes.safety-lag} не возвращаются: транзакции,
+     * начатые раньше, могут ещё не зафиксироваться, и клиент, продвинувший водяной знак,
+     * пропустил бы их. Граница считается по часам БД, по которым ставится и время изменения.</p>
+     *
+     * @param since   время изменения из предыдущего ответа; {@code null} — полная выгрузка с начала
+     * @param afterId идентификатор контрагента из предыдущего ответа
+     * @param limit   максимальное количество контрагентов в порции (от 1 до 5000)
+     * @return DTO {@link ContractorChangesResponseDto} с изменениями и следующим водяным знаком
+     */
+    @Transactional(readOnly = true)
+    public ContractorChangesResponseDto findChanges(LocalDateTime since, String afterId, int limit) {
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_CHANGES);
+        LocalDateTime until = contractorJdbcDao.currentTimestamp().minus(changesSafetyLag);
+
+        List<ContractorChangeDto> rows = contractorJdbcDao.findChanges(since, afterId, until, boundedLimit + 1);
+        boolean hasMore = rows.size() > boundedLimit;
+        List<ContractorChangeDto> content = hasMore ? rows.subList(0, boundedLimit) : rows;
+
+        var response = ContractorChangesResponseDto.builder()
+                .content(content)
+                .hasMore(hasMore);
+        if (content.isEmpty()) {
+            return response.nextSince(since).nextAfterId(afterId).build();
+        }
+        ContractorChangeDto last = content.getLast();
+        return response.nextSince(last.getChangedAt()).nextAfterId(last.getId()).build();
+    }
+
+    /**
+     * Получает активных контрагентов по списку идентификаторов одним запросом к БД.
+     * Повторяющиеся идентификаторы учитываются один раз.
+     *
+     * @param ids идентификаторы контрагентов
+     * @return DTO {@link ContractorBatchResponseDto} с найденными контрагентами и отсутствующими
+     *         идентификаторами в порядке запроса
+     */
+    @Transactional(readOnly = true)
+    public ContractorBatchResponseDto findByIds(List<String> ids) {
+        LinkedHashSet<String> requested = new LinkedHashSet<>(ids);
+        Map<String, ContractorResponseDto> found = contractorJdbcDao.findResponsesByIds(requested).stream()
+                .collect(Collectors.toMap(ContractorResponseDto::getId, Function.identity()));
+
+        List<ContractorResponseDto> content = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : requested) {
+            ContractorResponseDto contractor = found.get(id);
+            if (contractor != null) {
+                content.add(contractor);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ContractorBatchResponseDto(content, missing);
+    }
+
+    /**
+     * Находит активных контрагентов по точным значениям ИНН и ОГРН.
+     * Для каждого списка выполняется один запрос к БД независимо от количества значений.
+     *
+     * @param request DTO {@link ContractorLookupRequestDto} со списками ИНН и ОГРН
+     * @return DTO {@link ContractorLookupResponseDto} с контрагентами, сгруппированными по запрошенным значениям
+     */
+    @Transactional(readOnly = true)
+    public ContractorLookupResponseDto lookup(ContractorLookupRequestDto request) {
+        return new ContractorLookupResponseDto(
+                groupByRequested(request.getInns(), contractorJdbcDao::findResponsesByInns),
+                groupByRequested(request.getOgrns(), contractorJdbcDao::findResponsesByOgrns));
+    }
+
+    private static Map<String, List<ContractorResponseDto>> groupByRequested(
+            List<String> values, Function<Collection<String>, Map<String, List<ContractorResponseDto>>> lookup) {
+        if (values == null || values.isEmpty()) {
+            return Map.of();
+        }
+        LinkedHashSet<String> requested = new LinkedHashSet<>(values);
+        Map<String, List<ContractorResponseDto>> found = lookup.apply(requested);
+        Map<String, List<ContractorResponseDto>> result = new LinkedHashMap<>();
+        for (String value : requested) {
+            result.put(value, found.getOrDefault(value, List.of()));
+        }
+        return result;
+    }
+
+    private List<ContractorResponseDto> searchRows(SearchContractorRequestDto request, int limit, Set<ContractorField> fields) {
+        List<SparseContractorResponseDto> rows = contractorJdbcDao.searchSparse(request, limit, fields);
+        resolveReferenceNames(rows, fields);
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Заменяет идентификаторы справочников, прочитанные из строки контрагента, их названиями
+     * из закешированных справочников. Справочник загружается, только если его поле запрошено.
+     */
+    private void resolveReferenceNames(List<SparseContractorResponseDto> contractors, Set<ContractorField> fields) {
+        if (contractors.isEmpty()) {
+            return;
+        }
+        if (fields.contains(ContractorField.COUNTRY)) {
+            Map<String, String> countries = countryNames();
+            contractors.forEach(c -> c.setCountry(c.getCountryId() != null ? countries.get(c.getCountryId()) : null));
+        }
+        if (fields.contains(ContractorField.INDUSTRY)) {
+            Map<String, String> industries = industryNames();
+            contractors.forEach(c -> c.setIndustry(c.getIndustryId() != null ? industries.get(c.getIndustryId()) : null));
+        }
+        if (fields.contains(ContractorField.ORG_FORM)) {
+            Map<String, String> orgForms = orgFormNames();
+            contractors.forEach(c -> c.setOrgForm(c.getOrgFormId() != null ? orgForms.get(c.getOrgFormId()) : null));
+        }
+    }
+
+    private ContractorFacetsDto resolveFacetNames(ContractorFacetsDto facets) {
+        Map<String, String> countries = countryNames();
+        Map<String, String> industries = industryNames();
+        Map<String, String> orgForms = orgFormNames();
+
+        facets.getCountries().forEach(value -> value.setName(countries.get(value.getId())));
+        facets.getIndustries().forEach(value -> value.setName(industries.get(value.getId())));
+        facets.getOrgForms().forEach(value -> value.setName(orgForms.get(value.getId())));
+        return facets;
+    }
+
+    private Map<String, String> countryNames() {
+        return countryService.findAll().stream()
+                .filter(c -> c.getName() != null)
+                .collect(Collectors.toMap(CountryResponseDto::getId, CountryResponseDto::getName, (a, b) -> a));
+    }
+
+    private Map<String, String> industryNames() {
+        return industryService.findAll().stream()
+                .filter(i -> i.getName() != null)
+                .collect(Collectors.toMap(i -> String.valueOf(i.getId()), IndustryResponseDto::getName, (a, b) -> a));
+    }
+
+    private Map<String, String> orgFormNames() {
+        return orgFormService.findAll().stream()
+                .filter(o -> o.getName() != null)
+                .collect(Collectors.toMap(o -> String.valueOf(o.getId()), OrgFormResponseDto::getName, (a, b) -> a));
     }
 
     /**
@@ -184,4 +505,7 @@ public class ContractorService {
         }
     }
 
+    private record PageTotal(long value, boolean exact) {
+    }
+
 }
@@ -2,10 +2,12 @@ package org.ex9.contractorservice.service;
 
 import org.ex9.contractorservice.dto.country.CountryRequestDto;
 import org.ex9.contractorservice.dto.country.CountryResponseDto;
+import org.ex9.contractorservice.enums.VersionedResource;
 import org.ex9.contractorservice.exception.CountryNotFoundException;
 import org.ex9.contractorservice.mapper.CountryMapper;
 import org.ex9.contractorservice.model.Country;
 import org.ex9.contractorservice.repository.CountryRepository;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -24,22 +26,25 @@ import java.util.stream.Collectors;
 public class CountryService {
 
     private final CountryRepository countryRepository;
-    private static final String COUNTRIES_CACHE_PREFIX = "countries";
+    private final ResourceVersionService resourceVersionService;
+    public static final String COUNTRIES_CACHE_PREFIX = "countries";
     /**
      * Конструктор сервиса с внедрением зависимости репозитория.
      *
-     * @param countryRepository репозиторий для работы с сущностью {@link Country}
+     * @param countryRepository      репозиторий для работы с сущностью {@link Country}
+     * @param resourceVersionService реестр версий ресурсов для ETag
      */
     @Autowired
-    public CountryService(CountryRepository countryRepository) {
+    public CountryService(CountryRepository countryRepository, ResourceVersionService resourceVersionService) {
         this.countryRepository = countryRepository;
+        this.resourceVersionService = resourceVersionService;
     }
 
     /**
      * Получает список всех активных стран.
      * @return список DTO {@link CountryResponseDto} с данными активных стран
      */
-    @Cacheable(value = COUNTRIES_CACHE_PREFIX, key = "'all'")
+    @Cacheable(value = COUNTRIES_CACHE_PREFIX, key = "'all'", sync = true)
     public List<CountryResponseDto> findAll() {
 
         var countryList = countryRepository.findAllByIsActiveTrue();
@@ -66,6 +71,7 @@ public class CountryService {
             countryRepository.insert(c);
         }
         var country = countryRepository.findById(c.getId()).orElseThrow(() -> new CountryNotFoundException("Country not found with id " + c.getId()));
+        resourceVersionService.bump(VersionedResource.COUNTRIES);
         return CountryMapper.toDto(country);
     }
 
@@ -81,6 +87,7 @@ public class CountryService {
     public void delete(String id) {
         if (countryRepository.existsById(id)) {
             countryRepository.deleteById(id);
+            resourceVersionService.bump(VersionedResource.COUNTRIES);
         } else {
             throw new CountryNotFoundException("Country not found with id " + id);
         }
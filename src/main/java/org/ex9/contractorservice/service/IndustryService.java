@@ -2,10 +2,12 @@ package org.ex9.contractorservice.service;
 
 import org.ex9.contractorservice.dto.industry.IndustryRequestDto;
 import org.ex9.contractorservice.dto.industry.IndustryResponseDto;
+import org.ex9.contractorservice.enums.VersionedResource;
 import org.ex9.contractorservice.exception.IndustryNotFoundException;
 import org.ex9.contractorservice.mapper.IndustryMapper;
 import org.ex9.contractorservice.model.Industry;
 import org.ex9.contractorservice.repository.IndustryRepository;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -24,16 +26,19 @@ import java.util.stream.Collectors;
 public class IndustryService {
 
     private final IndustryRepository repository;
-    private static final String INDUSTRIES_CACHE_PREFIX = "industries";
+    private final ResourceVersionService resourceVersionService;
+    public static final String INDUSTRIES_CACHE_PREFIX = "industries";
 
     /**
      * Конструктор сервиса с внедрением зависимости репозитория.
      *
-     * @param industryRepository репозиторий для работы с сущностью {@link Industry}
+     * @param industryRepository     репозиторий для работы с сущностью {@link Industry}
+     * @param resourceVersionService реестр версий ресурсов для ETag
      */
     @Autowired
-    public IndustryService(IndustryRepository industryRepository) {
+    public IndustryService(IndustryRepository industryRepository, ResourceVersionService resourceVersionService) {
         this.repository = industryRepository;
+        this.resourceVersionService = resourceVersionService;
     }
 
     /**
@@ -41,7 +46,7 @@ public class IndustryService {
      *
      * @return список DTO {@link IndustryResponseDto} с данными активных производств
      */
-    @Cacheable(value = INDUSTRIES_CACHE_PREFIX, key = "'all'")
+    @Cacheable(value = INDUSTRIES_CACHE_PREFIX, key = "'all'", sync = true)
     public List<IndustryResponseDto> findAll() {
         var industryList = repository.findAllByIsActiveTrue();
         return industryList.stream().map(IndustryMapper::toDto).collect(Collectors.toList());
@@ -75,6 +80,7 @@ public class IndustryService {
             throw new IndustryNotFoundException("Industry with id " + industry.getId() + " not found");
         }
         var newOrUpdatedIndustry = repository.save(industry);
+        resourceVersionService.bump(VersionedResource.INDUSTRIES);
         return IndustryMapper.toDto(newOrUpdatedIndustry);
     }
 
@@ -90,6 +96,7 @@ public class IndustryService {
     public void delete(int id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            resourceVersionService.bump(VersionedResource.INDUSTRIES);
         } else {
             throw new IndustryNotFoundException("Industry with id " + id + " not found");
         }
@@ -2,10 +2,12 @@ package org.ex9.contractorservice.service;
 
 import org.ex9.contractorservice.dto.orgform.OrgFormRequestDto;
 import org.ex9.contractorservice.dto.orgform.OrgFormResponseDto;
+import org.ex9.contractorservice.enums.VersionedResource;
 import org.ex9.contractorservice.exception.OrgFormNotFoundException;
 import org.ex9.contractorservice.mapper.OrgFormMapper;
 import org.ex9.contractorservice.model.OrgForm;
 import org.ex9.contractorservice.repository.OrgFormRepository;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -24,23 +26,26 @@ import java.util.stream.Collectors;
 public class OrgFormService {
 
     private final OrgFormRepository repository;
-    private static final String ORG_FORM_CACHE_PREFIX = "orgforms";
+    private final ResourceVersionService resourceVersionService;
+    public static final String ORG_FORM_CACHE_PREFIX = "orgforms";
 
     /**
      * Конструктор сервиса с внедрением зависимости репозитория.
      *
-     * @param repository репозиторий для работы с сущностью {@link OrgForm}
+     * @param repository             репозиторий для работы с сущностью {@link OrgForm}
+     * @param resourceVersionService реестр версий ресурсов для ETag
      */
     @Autowired
-    public OrgFormService(OrgFormRepository repository) {
+    public OrgFormService(OrgFormRepository repository, ResourceVersionService resourceVersionService) {
         this.repository = repository;
+        this.resourceVersionService = resourceVersionService;
     }
 
     /**
      * Получает список всех активных организационных форм.
      * @return список DTO {@link OrgFormResponseDto} с данными активных организационных форм
      */
-    @Cacheable(value = ORG_FORM_CACHE_PREFIX, key = "'all'")
+    @Cacheable(value = ORG_FORM_CACHE_PREFIX, key = "'all'", sync = true)
     public List<OrgFormResponseDto> findAll() {
         var orgForms = repository.findAllByIsActiveTrue();
         return orgForms.stream().map(OrgFormMapper::toDto).collect(Collectors.toList());
@@ -75,6 +80,7 @@ public class OrgFormService {
             throw new OrgFormNotFoundException("OrgForm with id " + orgForm.getId() + " not found");
         }
         var newOrUpdatedOrgForm = repository.save(orgForm);
+        resourceVersionService.bump(VersionedResource.ORG_FORMS);
 
         return OrgFormMapper.toDto(newOrUpdatedOrgForm);
     }
@@ -91,6 +97,7 @@ public class OrgFormService {
     public void delete(int id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            resourceVersionService.bump(VersionedResource.ORG_FORMS);
         } else {
             throw new OrgFormNotFoundException("OrgForm with id " + id + " not found");
         }
@@ -0,0 +1,215 @@
+package org.ex9.contractorservice.service.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.ex9.contractorservice.exception.IdempotencyKeyReusedException;
+import org.ex9.contractorservice.exception.IdempotentRequestInProgressException;
+import org.ex9.contractorservice.utils.AuthInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Выполнение запросов с ключом идемпотентности ({@code Idempotency-Key}).
+ *
+ * <p>Первый запрос с ключом занимает его в Redis ({@code SET NX}) на {@code idempotency.in-flight-ttl},
+ * выполняет действие и сохраняет ответ на {@code idempotency.ttl}. Повтор с тем же ключом и телом
+ * получает сохранённый ответ без повторной записи в БД и повторного события {@code contractor.updated}.
+ * Повтор, пришедший во время выполнения первого запроса, ждёт его завершения до
+ * {@code idempotency.wait-timeout}. Если действие завершилось ошибкой, ключ освобождается,
+ * чтобы клиент мог повторить запрос.</p>
+ *
+ * <p>Ключ действует в пределах клиента (субъекта JWT); повтор ключа с другим телом запроса отклоняется.
+ * Если Redis недоступен, запрос выполняется без защиты от повторов.</p>
+ * @author Краковцев Артём
+ */
+@Service
+@Log4j2
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String KEY_PREFIX = "contractor-service:idempotency:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${idempotency.in-flight-ttl:30s}")
+    private Duration inFlightTtl;
+
+    @Value("${idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    @Value("${idempotency.poll-interval:50ms}")
+    private Duration pollInterval;
+
+    @Autowired
+    public IdempotencyService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Выполняет действие один раз для ключа идемпотентности или возвращает сохранённый результат.
+     *
+     * @param key          значение заголовка {@code Idempotency-Key}; без ключа действие просто выполняется
+     * @param request      тело запроса; повтор ключа с другим телом отклоняется
+     * @param responseType тип результата
+     * @param action       действие
+     * @param <T>          тип результата
+     * @return результат действия и признак того, что он взят из сохранённого ответа
+     * @throws IdempotencyKeyReusedException        если ключ использован для запроса с другим телом
+     * @throws IdempotentRequestInProgressException если запрос с ключом не завершился за время ожидания
+     */
+    public <T> Result<T> execute(String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return new Result<>(action.get(), false);
+        }
+        String redisKey = KEY_PREFIX + client() + ":" + key;
+        String requestHash = hash(request);
+
+        Boolean acquired;
+        try {
+            acquired = redisTemplate.opsForValue().setIfAbsent(redisKey, write(new Entry(requestHash, null)), inFlightTtl);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency key {} not checked, Redis unavailable: {}", key, e.getMessage());
+            return new Result<>(action.get(), false);
+        }
+
+        if (Boolean.TRUE.equals(acquired)) {
+            return new Result<>(runAndStore(redisKey, requestHash, action), false);
+        }
+        return new Result<>(awaitStored(redisKey, key, requestHash, responseType), true);
+    }
+
+    private static String client() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + AuthInfo.getUsername();
+        }
+        return "anonymous";
+    }
+
+    private <T> T runAndStore(String redisKey, String requestHash, Supplier<T> action) {
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(redisKey);
+            throw e;
+        }
+        try {
+            redisTemplate.opsForValue().set(redisKey, write(new Entry(requestHash, objectMapper.valueToTree(response))), ttl);
+        } catch (DataAccessException e) {
+            log.warn("Response for idempotency key {} not stored: {}", redisKey, e.getMessage());
+        }
+        return response;
+    }
+
+    private <T> T awaitStored(String redisKey, String key, String requestHash, Class<T> responseType) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            String stored = redisTemplate.opsForValue().get(redisKey);
+            if (stored == null) {
+                // первый запрос завершился ошибкой и освободил ключ
+                throw new IdempotentRequestInProgressException("Request with Idempotency-Key " + key + " failed, retry it");
+            }
+            Entry entry = read(stored);
+            if (!entry.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException("Idempotency-Key " + key + " was already used with a different request body");
+            }
+            if (entry.completed()) {
+                return objectMapper.convertValue(entry.response(), responseType);
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IdempotentRequestInProgressException("Request with Idempotency-Key " + key + " is still in progress");
+            }
+            sleep();
+        }
+    }
+
+    private void release(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency key {} not released, it expires in {}: {}", redisKey, inFlightTtl, e.getMessage());
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException("Interrupted while waiting for a request in progress");
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+
+    private String write(Entry entry) {
+        try {
+            return objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotency entry", e);
+        }
+    }
+
+    private Entry read(String value) {
+        try {
+            return objectMapper.readValue(value, Entry.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read idempotency entry", e);
+        }
+    }
+
+    /**
+     * Результат выполнения запроса с ключом идемпотентности.
+     *
+     * @param value    ответ
+     * @param replayed {@code true}, если ответ сохранён предыдущим запросом с тем же ключом
+     * @param <T>      тип ответа
+     */
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    /**
+     * Запись ключа в Redis: хеш тела запроса и ответ ({@code null}, пока запрос выполняется).
+     * Поле ответа незавершённого запроса не записывается в JSON.
+     */
+    record Entry(String requestHash, @JsonInclude(JsonInclude.Include.NON_NULL) JsonNode response) {
+
+        /**
+         * @return {@code true}, если ответ сохранён; JSON {@code null} читается как {@code NullNode}
+         */
+        boolean completed() {
+            return response != null && !response.isNull() && !response.isMissingNode();
+        }
+
+    }
+
+}
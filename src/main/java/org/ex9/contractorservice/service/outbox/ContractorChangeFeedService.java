@@ -0,0 +1,282 @@
+package org.ex9.contractorservice.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.ex9.contractorservice.dao.OutboxFeedJdbcDao;
+import org.ex9.contractorservice.dto.contractor.ContractorChangeEventDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Лента изменений контрагентов по Server-Sent Events.
+ *
+ * <p>Один читатель на экземпляр сервиса периодически выбирает новые события outbox_event
+ * по сквозному номеру {@code seq} и рассылает их всем подписчикам. Пока подписчиков нет,
+ * запросы к БД не выполняются.</p>
+ *
+ * <p>Номер события передаётся как идентификатор SSE, поэтому переподключившийся клиент
+ * присылает его в заголовке {@code Last-Event-ID} и получает пропущенные события
+ * из таблицы outbox_event (в пределах срока хранения её секций).</p>
+ *
+ * <p>Номера выделяются при вставке, а транзакции фиксируются в произвольном порядке, поэтому
+ * читатель не перескакивает через пропуск в нумерации, пока он не старше
+ * {@code contractor.feed.gap-timeout}: за это время либо зафиксируется транзакция с пропущенным
+ * номером, либо станет ясно, что она откатилась.</p>
+ * @author Краковцев Артём
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class ContractorChangeFeedService {
+
+    private static final String EVENT_NAME = "contractor.updated";
+
+    private final OutboxFeedJdbcDao outboxFeedJdbcDao;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Value("${contractor.feed.emitter-timeout:30m}")
+    private Duration emitterTimeout;
+
+    @Value("${contractor.feed.batch-size:500}")
+    private int batchSize;
+
+    @Value("${contractor.feed.max-catch-up:10000}")
+    private int maxCatchUp;
+
+    @Value("${contractor.feed.gap-timeout:2s}")
+    private Duration gapTimeout;
+
+    /** Номер последнего разосланного события, {@code -1} до первого обращения к БД */
+    private volatile long lastSeq = -1;
+
+    /** Момент обнаружения пропуска в нумерации, на котором остановился читатель */
+    private Instant gapSince;
+
+    /**
+     * Подписывает клиента на ленту изменений.
+     * Если указан номер последнего полученного события, сначала отправляются пропущенные события;
+     * при слишком большом отставании отправляется не более {@code contractor.feed.max-catch-up}
+     * событий, после чего поток закрывается, и клиент продолжает с нового {@code Last-Event-ID}.
+     *
+     * <p>Пропущенные события читаются в потоке запроса без общей блокировки. Подписчик регистрируется
+     * в режиме догоняющего чтения до того, как запоминается номер последнего разосланного события:
+     * всё, что разослано до этого номера, он получит из таблицы, всё, что после, — из очереди отложенных.
+     * События, попавшие в оба источника, отправляются один раз.</p>
+     *
+     * @param lastEventId номер последнего полученного клиентом события либо {@code null}
+     * @return {@link SseEmitter} потока событий
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        initLastSeq();
+        subscribers.add(subscriber);
+
+        long head = lastSeq;
+        long fromSeq = lastEventId != null ? lastEventId : head;
+        subscriber.sentSeq = fromSeq;
+        if (fromSeq < head && !catchUp(subscriber, fromSeq, head)) {
+            subscribers.remove(subscriber);
+            return emitter;
+        }
+        subscriber.sentSeq = Math.max(subscriber.sentSeq, head);
+        if (!flushPending(subscriber)) {
+            subscribers.remove(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Читает новые события и рассылает их подписчикам. Вызывается только планировщиком
+     * с фиксированной задержкой, поэтому состояние читателя меняет один поток.
+     */
+    @Scheduled(fixedDelayString = "${contractor.feed.poll-interval:500}")
+    public void poll() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            initLastSeq();
+            List<ContractorChangeEventDto> events;
+            do {
+                events = outboxFeedJdbcDao.findAfter(lastSeq, batchSize);
+                for (ContractorChangeEventDto event : events) {
+                    if (event.seq() != lastSeq + 1 && !gapExpired()) {
+                        return;
+                    }
+                    gapSince = null;
+                    lastSeq = event.seq();
+                    for (Subscriber subscriber : subscribers) {
+                        deliver(subscriber, event);
+                    }
+                }
+            } while (events.size() == batchSize);
+        } catch (Exception e) {
+            log.error("Contractor change feed poll failed", e);
+        }
+    }
+
+    /**
+     * Отправляет подписчикам комментарий, чтобы промежуточные прокси не закрывали
+     * простаивающие соединения, а оборванные соединения обнаруживались и удалялись.
+     */
+    @Scheduled(fixedRateString = "${contractor.feed.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            send(subscriber, SseEmitter.event().comment("keepalive"));
+        }
+    }
+
+    /**
+     * Возвращает количество активных подписчиков.
+     *
+     * @return количество подписчиков
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private boolean catchUp(Subscriber subscriber, long fromSeq, long head) {
+        long cursor = fromSeq;
+        int sent = 0;
+        while (cursor < head) {
+            List<ContractorChangeEventDto> events = outboxFeedJdbcDao.findBetween(cursor, head, batchSize);
+            if (events.isEmpty()) {
+                break;
+            }
+            for (ContractorChangeEventDto event : events) {
+                if (!send(subscriber, toSseEvent(event))) {
+                    return false;
+                }
+                cursor = event.seq();
+                subscriber.sentSeq = cursor;
+            }
+            sent += events.size();
+            if (sent >= maxCatchUp && cursor < head) {
+                subscriber.emitter.complete();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Отправляет события, отложенные во время догоняющего чтения, и переводит подписчика
+     * на прямую рассылку. События, уже отправленные при догоняющем чтении или разосланные
+     * до подписки, пропускаются.
+     */
+    private boolean flushPending(Subscriber subscriber) {
+        while (true) {
+            List<ContractorChangeEventDto> batch = subscriber.drainPending();
+            if (batch.isEmpty()) {
+                return true;
+            }
+            for (ContractorChangeEventDto event : batch) {
+                if (event.seq() > subscriber.sentSeq && !send(subscriber, toSseEvent(event))) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void deliver(Subscriber subscriber, ContractorChangeEventDto event) {
+        if (subscriber.defer(event)) {
+            if (subscriber.pendingSize() > maxCatchUp) {
+                subscriber.emitter.complete();
+            }
+            return;
+        }
+        send(subscriber, toSseEvent(event));
+    }
+
+    private boolean gapExpired() {
+        Instant now = Instant.now();
+        if (gapSince == null) {
+            gapSince = now;
+        }
+        return !now.isBefore(gapSince.plus(gapTimeout));
+    }
+
+    private void initLastSeq() {
+        if (lastSeq < 0) {
+            synchronized (this) {
+                if (lastSeq < 0) {
+                    lastSeq = outboxFeedJdbcDao.findLastSeq();
+                }
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(ContractorChangeEventDto event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.seq()))
+                .name(EVENT_NAME)
+                .data(event.payload(), MediaType.APPLICATION_JSON);
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping change feed subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            return false;
+        }
+    }
+
+    /**
+     * Подписчик ленты. Пока он получает пропущенные события, новые события откладываются;
+     * блокировка держится только на время работы с очередью отложенных, но не на время отправки.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private List<ContractorChangeEventDto> pending;
+        private volatile long sentSeq = -1;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.pending = new ArrayList<>();
+        }
+
+        private synchronized boolean defer(ContractorChangeEventDto event) {
+            if (pending == null) {
+                return false;
+            }
+            pending.add(event);
+            return true;
+        }
+
+        private synchronized int pendingSize() {
+            return pending == null ? 0 : pending.size();
+        }
+
+        private synchronized List<ContractorChangeEventDto> drainPending() {
+            if (pending.isEmpty()) {
+                pending = null;
+                return List.of();
+            }
+            List<ContractorChangeEventDto> batch = pending;
+            pending = new ArrayList<>();
+            return batch;
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.ex9.contractorservice.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Слушатель канала PostgreSQL {@code outbox_event}.
+ *
+ * <p>Триггер на outbox_event вызывает {@code pg_notify} при вставке событий, и PostgreSQL
+ * доставляет уведомление сразу после фиксации транзакции. Слушатель держит отдельное
+ * соединение вне пула, ожидает уведомления без выполнения запросов и будит
+ * {@link OutboxRelay}. После (пере)подключения ретранслятор запускается один раз,
+ * чтобы забрать события, зафиксированные до подписки на канал.</p>
+ * @author Краковцев Артём
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnProperty(name = {"outbox.relay.enabled", "outbox.relay.listen.enabled"}, havingValue = "true", matchIfMissing = true)
+public class OutboxNotificationListener implements SmartLifecycle {
+
+    private static final String CHANNEL = "outbox_event";
+
+    /** Максимальное ожидание уведомления; влияет только на скорость остановки, запросы к БД не выполняются */
+    private static final int MAX_WAIT_MILLIS = 1000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final OutboxRelay outboxRelay;
+
+    @Value("${outbox.relay.listen.reconnect-delay:5000}")
+    private long reconnectDelay;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("outbox-listener").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                listen(connection);
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Outbox listener connection lost, reconnecting in {} ms: {}", reconnectDelay, e.getMessage());
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        log.info("Outbox listener subscribed to channel {}", CHANNEL);
+
+        drain();
+        while (running) {
+            int timeout = (int) Math.max(1, Math.min(MAX_WAIT_MILLIS, outboxRelay.millisUntilDue()));
+            PGNotification[] notifications = pgConnection.getNotifications(timeout);
+            boolean notified = notifications != null && notifications.length > 0;
+            if (notified || outboxRelay.millisUntilDue() <= 0) {
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            outboxRelay.drain();
+        } catch (Exception e) {
+            log.error("Outbox relay failed, events will be retried", e);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -2,15 +2,23 @@ package org.ex9.contractorservice.service.outbox;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.ex9.contractorservice.dto.rabbit.ContractorDto;
+import org.ex9.contractorservice.model.OutboxEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Сервис для публикации событий из outbox в RabbitMQ.
  *
+ * <p>Тело сообщения берётся из события как есть, без конвертера сообщений,
+ * а заголовки совпадают с теми, что выставлял {@code Jackson2JsonMessageConverter}.</p>
+ *
  * @author Крковцев Артём
  */
 @Service
@@ -24,15 +32,18 @@ public class OutboxPublisher {
     private Long confirmTime;
 
     /**
-     * Отправляет данные о новом/обновленном контрагенте в RabbitMQ.
+     * Отправляет событие о новом/обновленном контрагенте в RabbitMQ.
+     * Идентификатор события используется как messageId, чтобы потребители
+     * могли отбрасывать повторную доставку.
      *
-     * @param dto объект с информацией о контрагенте
+     * @param event событие outbox с готовым телом сообщения
      */
     @Transactional
-    public void publish(ContractorDto dto) {
+    public void publish(OutboxEvent event) {
+        Message message = toMessage(event);
         try {
             rabbitTemplate.invoke(channel -> {
-                channel.convertAndSend(dto);
+                channel.send(message);
                 channel.waitForConfirmsOrDie(confirmTime);
                 return null;
             });
@@ -43,4 +54,18 @@ public class OutboxPublisher {
         }
     }
 
+    private Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(event.getContentType());
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setContentLength(event.getPayload().length);
+        if (event.getId() != null) {
+            properties.setMessageId(event.getId().toString());
+        }
+        if (event.getTypeId() != null) {
+            properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getTypeId());
+        }
+        return new Message(event.getPayload(), properties);
+    }
+
 }
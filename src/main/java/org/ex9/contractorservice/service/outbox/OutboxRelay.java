@@ -0,0 +1,163 @@
+package org.ex9.contractorservice.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.ex9.contractorservice.model.OutboxEvent;
+import org.ex9.contractorservice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ретранслятор неопубликованных событий из таблицы outbox_event в RabbitMQ.
+ *
+ * <p>Периодически выбирает неопубликованные события в порядке создания, публикует их
+ * и помечает опубликованными в той же транзакции. Одновременно работает только один
+ * экземпляр ретранслятора (advisory-блокировка PostgreSQL), поэтому порядок событий
+ * одного контрагента сохраняется.</p>
+ *
+ * <p>Обычно ретранслятор будит {@link OutboxNotificationListener} сразу после фиксации
+ * новых событий, а плановый опрос служит лишь страховкой на случай потери соединения.</p>
+ *
+ * <p>В режиме схлопывания ({@code outbox.relay.coalesce.enabled}) события одного
+ * контрагента копятся в течение окна {@code outbox.relay.coalesce.window}, отсчитываемого
+ * от самого раннего из них, после чего публикуется только последнее событие, а все
+ * предыдущие помечаются опубликованными без отправки.</p>
+ * @author Краковцев Артём
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.coalesce.enabled:false}")
+    private boolean coalesceEnabled;
+
+    @Value("${outbox.relay.coalesce.window:5s}")
+    private Duration coalesceWindow;
+
+    /** Момент, когда истечёт окно самой ранней отложенной группы событий, либо {@code null} */
+    private volatile LocalDateTime nextDueAt;
+
+    /**
+     * Плановый запуск ретрансляции. Ошибки публикации логируются, а события
+     * остаются неопубликованными до следующего запуска.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval:30000}")
+    public void relay() {
+        try {
+            drain();
+        } catch (Exception e) {
+            log.error("Outbox relay failed, events will be retried", e);
+        }
+    }
+
+    /**
+     * Публикует пачки событий, пока они есть. Запуски внутри одного экземпляра
+     * выполняются последовательно, чтобы пробуждение не потерялось, пока другой
+     * поток держит advisory-блокировку.
+     */
+    public synchronized void drain() {
+        int sent;
+        do {
+            sent = relayBatch();
+        } while (sent > 0);
+    }
+
+    /**
+     * Публикует одну пачку неопубликованных событий.
+     *
+     * @return количество отправленных в брокер сообщений
+     */
+    public int relayBatch() {
+        Integer sent = transactionTemplate.execute(status -> {
+            if (!outboxEventRepository.tryLockRelay()) {
+                return 0;
+            }
+
+            List<OutboxEvent> events = outboxEventRepository.findUnpublished(batchSize);
+            nextDueAt = null;
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<UUID> handled = new ArrayList<>();
+            List<OutboxEvent> toPublish = coalesceEnabled
+                    ? coalesce(events, now.minus(coalesceWindow), handled)
+                    : passThrough(events, handled);
+
+            for (OutboxEvent event : toPublish) {
+                outboxPublisher.publish(event);
+            }
+            if (!handled.isEmpty()) {
+                outboxEventRepository.markPublished(handled, now);
+            }
+
+            if (handled.size() > toPublish.size()) {
+                log.debug("Outbox relay coalesced {} events into {} messages", handled.size(), toPublish.size());
+            }
+            return toPublish.size();
+        });
+        return sent == null ? 0 : sent;
+    }
+
+    /**
+     * Возвращает время до истечения окна схлопывания самой ранней отложенной группы событий.
+     *
+     * @return миллисекунды до ближайшей публикации либо {@link Long#MAX_VALUE}, если отложенных событий нет
+     */
+    public long millisUntilDue() {
+        LocalDateTime due = nextDueAt;
+        return due == null ? Long.MAX_VALUE : Duration.between(LocalDateTime.now(), due).toMillis();
+    }
+
+    private List<OutboxEvent> passThrough(List<OutboxEvent> events, List<UUID> handled) {
+        events.forEach(event -> handled.add(event.getId()));
+        return events;
+    }
+
+    private List<OutboxEvent> coalesce(List<OutboxEvent> events, LocalDateTime windowStart, List<UUID> handled) {
+        Map<String, List<OutboxEvent>> byContractor = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            String key = event.getAggregateId() != null ? event.getAggregateId() : event.getId().toString();
+            byContractor.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+        }
+
+        List<OutboxEvent> latest = new ArrayList<>();
+        for (List<OutboxEvent> group : byContractor.values()) {
+            LocalDateTime firstCreatedAt = group.get(0).getCreatedAt();
+            if (firstCreatedAt.isAfter(windowStart)) {
+                LocalDateTime due = firstCreatedAt.plus(coalesceWindow);
+                if (nextDueAt == null || due.isBefore(nextDueAt)) {
+                    nextDueAt = due;
+                }
+                continue;
+            }
+            group.forEach(event -> handled.add(event.getId()));
+            latest.add(group.get(group.size() - 1));
+        }
+        latest.sort(Comparator.comparing(OutboxEvent::getCreatedAt));
+        return latest;
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.ex9.contractorservice.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.ex9.contractorservice.dao.OutboxPartitionJdbcDao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Сервис обслуживания секций таблицы outbox_event.
+ *
+ * <p>Заранее создаёт суточные секции на {@code outbox.retention.premake-days} дней вперёд
+ * и удаляет секции старше {@code outbox.retention.period}, если все события в них
+ * опубликованы. Благодаря этому размер таблицы и её индексов в установившемся режиме
+ * не растёт, а удаление старых данных не нагружает VACUUM.</p>
+ *
+ * <p>Обслуживание запускается всеми экземплярами по одному расписанию, но выполняет его только тот,
+ * кто захватил advisory-блокировку; остальные пропускают запуск.</p>
+ * @author Краковцев Артём
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnProperty(name = "outbox.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRetentionService {
+
+    private final OutboxPartitionJdbcDao outboxPartitionJdbcDao;
+
+    @Value("${outbox.retention.period:7d}")
+    private Duration retention;
+
+    @Value("${outbox.retention.premake-days:7}")
+    private int premakeDays;
+
+    @Value("${outbox.retention.lock-timeout:5s}")
+    private Duration lockTimeout;
+
+    /**
+     * Плановое обслуживание секций, а также первичный запуск после старта приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${outbox.retention.cron:0 15 3 * * *}")
+    public void maintain() {
+        try {
+            boolean done = outboxPartitionJdbcDao.runExclusively(() -> {
+                createPartitions(LocalDate.now());
+                dropExpiredPartitions(LocalDateTime.now().minus(retention));
+            });
+            if (!done) {
+                log.debug("Outbox partition maintenance is running on another instance, skipping");
+            }
+        } catch (Exception e) {
+            log.error("Outbox partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Создаёт недостающие суточные секции с текущего дня на {@code premakeDays} дней вперёд.
+     *
+     * @param today текущий день
+     */
+    public void createPartitions(LocalDate today) {
+        for (int i = 0; i <= premakeDays; i++) {
+            LocalDate day = today.plusDays(i);
+            try {
+                outboxPartitionJdbcDao.createPartition(day);
+            } catch (Exception e) {
+                log.warn("Could not create outbox partition for {}: {}", day, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Удаляет секции, целиком лежащие раньше границы хранения и не содержащие
+     * неопубликованных событий, и очищает секцию по умолчанию от опубликованных событий.
+     *
+     * @param before граница хранения
+     * @return количество удалённых секций
+     */
+    public int dropExpiredPartitions(LocalDateTime before) {
+        int dropped = 0;
+        for (LocalDate day : outboxPartitionJdbcDao.findPartitionDays()) {
+            if (day.plusDays(1).atStartOfDay().isAfter(before)) {
+                break;
+            }
+            if (outboxPartitionJdbcDao.hasUnpublished(day)) {
+                log.warn("Outbox partition for {} still has unpublished events, keeping it", day);
+                continue;
+            }
+            try {
+                outboxPartitionJdbcDao.dropPartition(day, lockTimeout);
+                dropped++;
+            } catch (Exception e) {
+                log.warn("Could not drop outbox partition for {}, will retry on next run: {}", day, e.getMessage());
+            }
+        }
+
+        int purged = outboxPartitionJdbcDao.purgeDefaultPartition(before);
+        log.info("Outbox retention: dropped {} partitions, purged {} rows from default partition", dropped, purged);
+        return dropped;
+    }
+
+}
@@ -9,6 +9,8 @@ import org.ex9.contractorservice.mapper.ContractorMapper;
 import org.ex9.contractorservice.model.Contractor;
 import org.ex9.contractorservice.model.OutboxEvent;
 import org.ex9.contractorservice.repository.OutboxEventRepository;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,8 +19,9 @@ import java.time.LocalDateTime;
 /**
  * Сервис для сохранения событий в базу данных.
  *
- * <p>При изменении контрагента формирует DTO, сериализует его в JSON
- * и сохраняет как новое событие в таблицу outbox_event.</p>
+ * <p>При изменении контрагента формирует DTO, один раз сериализует его в JSON
+ * и сохраняет готовое тело сообщения вместе с заголовками как новое событие
+ * в таблицу outbox_event. {@link OutboxPublisher} отправляет эти байты без повторной сериализации.</p>
  * @author Крковцев Артём
  */
 @Service
@@ -28,6 +31,9 @@ public class OutboxService {
     private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
 
+    @Value("${outbox.relay.coalesce.enabled:false}")
+    private boolean coalesceEnabled;
+
     /**
      * Сохраняет событие изменения контрагента.
      *
@@ -39,10 +45,13 @@ public class OutboxService {
 
         OutboxEvent outboxEvent;
         try {
-           String json = objectMapper.writeValueAsString(contractorDto);
+            byte[] body = objectMapper.writeValueAsBytes(contractorDto);
             outboxEvent = OutboxEvent.builder()
                     .type(EventType.CONTRACTOR_UPDATE)
-                    .payload(json)
+                    .aggregateId(contractor.getId())
+                    .payload(body)
+                    .contentType(MessageProperties.CONTENT_TYPE_JSON)
+                    .typeId(ContractorDto.class.getName())
                     .isPublish(false)
                     .createdAt(LocalDateTime.now())
                     .build();
@@ -53,6 +62,17 @@ public class OutboxService {
         return outboxEventRepository.save(outboxEvent);
     }
 
+    /**
+     * Проверяет, публикуются ли события только ретранслятором {@link OutboxRelay}.
+     * <p>В режиме схлопывания событие не отправляется сразу после сохранения:
+     * ретранслятор дожидается окончания окна и публикует только последнее событие контрагента.</p>
+     *
+     * @return {@code true}, если включён режим схлопывания событий
+     */
+    public boolean publishesViaRelay() {
+        return coalesceEnabled;
+    }
+
     /**
      * Помечает событие как опубликованное.
      * @param outboxEvent событие которое нужно пометить
@@ -0,0 +1,114 @@
+package org.ex9.contractorservice.service.ratelimit;
+
+import lombok.extern.log4j.Log4j2;
+import org.ex9.contractorservice.cache.CircuitBreaker;
+import org.ex9.contractorservice.config.RateLimitProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ограничение частоты запросов клиентов по алгоритму корзины токенов.
+ *
+ * <p>По умолчанию корзины хранятся в памяти экземпляра: проверка не требует сетевых обращений
+ * и не замедляет клиентов, укладывающихся в лимит. При {@code rate-limit.shared=true} корзины
+ * хранятся в Redis и проверяются атомарным Lua-скриптом, поэтому лимит общий для всех экземпляров.
+ * Если Redis недоступен, {@link CircuitBreaker} переключает проверку на локальные корзины.</p>
+ *
+ * <p>Заполненные корзины раз в {@code rate-limit.eviction-interval} удаляются из памяти: их состояние
+ * совпадает с новой корзиной, а память не растёт с числом когда-либо обращавшихся клиентов.</p>
+ * @author Краковцев Артём
+ */
+@Service
+@Log4j2
+public class RateLimiter {
+
+    static final String KEY_PREFIX = "contractor-service:rate-limit:";
+
+    /**
+     * Корзина в хэше {@code {tokens, ts}}. Время берётся из Redis ({@code TIME}), чтобы расхождение
+     * часов экземпляров не влияло на пополнение. Возвращает {@code 0} или время ожидания в микросекундах.
+     */
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1]) or capacity
+            local ts = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000000)
+            local wait = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+            else
+                wait = math.ceil((1 - tokens) * 1000000 / rate)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+            return wait
+            """, Long.class);
+
+    private final RateLimitProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final CircuitBreaker circuitBreaker;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, StringRedisTemplate redisTemplate) {
+        this(properties, redisTemplate, new CircuitBreaker("rate-limit-redis", 3, Duration.ofSeconds(10)));
+    }
+
+    RateLimiter(RateLimitProperties properties, StringRedisTemplate redisTemplate, CircuitBreaker circuitBreaker) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Расходует токен клиента из лимита с указанным именем.
+     *
+     * @param limitName имя лимита из {@code rate-limit.limits}
+     * @param clientKey идентификатор клиента
+     * @return {@link Duration#ZERO}, если запрос разрешён, иначе время до появления токена
+     */
+    public Duration tryAcquire(String limitName, String clientKey) {
+        RateLimitProperties.Limit limit = properties.getLimits().get(limitName);
+        if (!properties.isEnabled() || limit == null || limit.getCapacity() <= 0 || limit.getRefillPerSecond() <= 0) {
+            return Duration.ZERO;
+        }
+        String key = limitName + ":" + clientKey;
+        if (properties.isShared() && circuitBreaker.allowRequest()) {
+            try {
+                Long waitMicros = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(KEY_PREFIX + key),
+                        String.valueOf(limit.getCapacity()), String.valueOf(limit.getRefillPerSecond()));
+                circuitBreaker.onSuccess();
+                return waitMicros != null ? Duration.ofNanos(waitMicros * 1_000) : Duration.ZERO;
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure();
+                log.warn("Shared rate limit check failed, using local bucket: {}", e.getMessage());
+            }
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+        return Duration.ofNanos(bucket.tryConsume(now));
+    }
+
+    /**
+     * Удаляет из памяти заполненные неиспользуемые корзины.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:10m}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.ex9.contractorservice.service.ratelimit;
+
+/**
+ * Локальная корзина токенов одного клиента.
+ *
+ * <p>Корзина вмещает {@code capacity} токенов (допустимый всплеск) и пополняется со скоростью
+ * {@code refillPerSecond}; каждый запрос расходует один токен. Токены пересчитываются при обращении,
+ * поэтому фоновые потоки не нужны.</p>
+ * @author Краковцев Артём
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long updatedAt;
+
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.updatedAt = now;
+    }
+
+    /**
+     * Пытается взять токен.
+     *
+     * @param now текущее время {@link System#nanoTime()}
+     * @return {@code 0}, если токен взят, иначе время в наносекундах до появления токена
+     */
+    synchronized long tryConsume(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * @return {@code true}, если корзина полностью пополнилась и её можно удалить без потери состояния
+     */
+    synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        if (now > updatedAt) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerNano);
+            updatedAt = now;
+        }
+    }
+
+}
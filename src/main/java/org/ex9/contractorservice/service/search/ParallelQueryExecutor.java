@@ -0,0 +1,216 @@
+package org.ex9.contractorservice.service.search;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Параллельное выполнение независимых запросов одного поиска (страница, подсчёт, фасеты)
+ * в виртуальных потоках, каждый на своём соединении из пула.
+ *
+ * <p>Запросы объединяются в {@link Scope}: если один из них завершился ошибкой, остальные
+ * прерываются, а ошибка пробрасывается вызывающему. Прерывание виртуального потока,
+ * ожидающего ответа БД, закрывает сокет соединения, и пул заменяет его новым.</p>
+ *
+ * <p>Одновременно выполняется не больше {@code contractor.search.parallel.max-queries} запросов,
+ * чтобы параллельные поиски не исчерпали пул соединений. Запрос, которому не хватило разрешения
+ * (или при выключенном {@code contractor.search.parallel.enabled}), откладывается и выполняется
+ * в вызывающем потоке при первом обращении к результату, как при последовательном поиске.</p>
+ * @author Краковцев Артём
+ */
+@Component
+public class ParallelQueryExecutor {
+
+    private final boolean enabled;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    /**
+     * @param enabled    выполнять ли запросы параллельно
+     * @param maxQueries максимальное количество одновременно выполняемых параллельных запросов
+     */
+    @Autowired
+    public ParallelQueryExecutor(@Value("${contractor.search.parallel.enabled:true}") boolean enabled,
+                                 @Value("${contractor.search.parallel.max-queries:4}") int maxQueries) {
+        this.enabled = enabled && maxQueries > 0;
+        this.permits = new Semaphore(Math.max(maxQueries, 0));
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("search-query-", 0).factory());
+    }
+
+    /**
+     * Открывает группу запросов одного поиска.
+     *
+     * @return новая группа запросов; закрывается после получения всех нужных результатов
+     */
+    public Scope open() {
+        return new Scope();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Группа запросов, выполняемых одновременно. Запросы запускаются и их результаты читаются
+     * одним (вызывающим) потоком.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final List<Query<?>> queries = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Void> failure = new CompletableFuture<>();
+
+        private Scope() {
+        }
+
+        /**
+         * Запускает запрос в отдельном виртуальном потоке или, если свободных разрешений нет,
+         * откладывает его до первого обращения к результату.
+         *
+         * @param query запрос
+         * @param <T>   тип результата
+         * @return дескриптор запроса
+         */
+        public <T> Query<T> fork(Supplier<T> query) {
+            Query<T> handle = new Query<>(this, query);
+            queries.add(handle);
+            if (enabled && permits.tryAcquire()) {
+                handle.forked = true;
+                try {
+                    handle.task = executor.submit(() -> {
+                        if (!handle.started.compareAndSet(false, true)) {
+                            // запрос отменён до запуска, разрешение вернул cancel
+                            return;
+                        }
+                        try {
+                            handle.run();
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    handle.forked = false;
+                    permits.release();
+                }
+            }
+            return handle;
+        }
+
+        private void releasePermit() {
+            permits.release();
+        }
+
+        private void failed(Throwable error) {
+            if (failure.completeExceptionally(error)) {
+                queries.forEach(query -> query.cancel(true));
+            }
+        }
+
+        /**
+         * Прерывает запросы, которые ещё выполняются, если в группе произошла ошибка.
+         * Без ошибки незавершённые запросы (например, ненужный подсчёт) дорабатывают сами
+         * и освобождают соединение, не разрывая его.
+         */
+        @Override
+        public void close() {
+            if (failure.isCompletedExceptionally()) {
+                queries.forEach(query -> query.cancel(true));
+            }
+        }
+
+    }
+
+    /**
+     * Дескриптор запроса в группе.
+     *
+     * @param <T> тип результата
+     */
+    public static final class Query<T> {
+
+        private final Scope scope;
+        private final Supplier<T> query;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        /** Запущен ли запрос либо отменён до запуска; разрешение возвращает тот, кто установил флаг */
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile boolean forked;
+        private volatile Future<?> task;
+
+        private Query(Scope scope, Supplier<T> query) {
+            this.scope = scope;
+            this.query = query;
+        }
+
+        private void run() {
+            try {
+                result.complete(query.get());
+            } catch (Throwable e) {
+                // ошибка отменённого запроса (например, ненужного подсчёта) не влияет на группу
+                if (result.completeExceptionally(e)) {
+                    scope.failed(e);
+                }
+            }
+        }
+
+        /**
+         * Возвращает результат запроса, ожидая его завершения. Отложенный запрос выполняется
+         * в вызывающем потоке. Если другой запрос группы завершился ошибкой, ожидание прекращается
+         * и пробрасывается эта ошибка.
+         *
+         * @return результат запроса
+         */
+        public T get() {
+            if (!forked && !result.isDone()) {
+                run();
+            }
+            try {
+                CompletableFuture.anyOf(result, scope.failure).join();
+                return result.join();
+            } catch (CompletionException | CancellationException e) {
+                scope.failed(e instanceof CompletionException ? e.getCause() : e);
+                // первая ошибка группы, а не отмена этого запроса, вызванная ею
+                Throwable error = scope.failure.exceptionNow();
+                throw error instanceof RuntimeException runtimeException
+                        ? runtimeException
+                        : new IllegalStateException("Search query failed", error);
+            }
+        }
+
+        /**
+         * Отменяет запрос, результат которого больше не нужен. Отложенный или ещё не запущенный
+         * запрос не выполняется, а уже запущенный дорабатывает без прерывания, если не задано {@code interrupt}.
+         * Разрешение не запущенного запроса возвращается здесь же: отменённая до запуска задача
+         * исполнителя не выполняется и сама бы его не вернула.
+         *
+         * @param interrupt прервать поток запроса, если он уже выполняется
+         */
+        public void cancel(boolean interrupt) {
+            if (!result.cancel(false)) {
+                return;
+            }
+            if (forked && started.compareAndSet(false, true)) {
+                scope.releasePermit();
+                return;
+            }
+            Future<?> running = task;
+            if (interrupt && running != null) {
+                running.cancel(true);
+            }
+        }
+
+    }
+
+}
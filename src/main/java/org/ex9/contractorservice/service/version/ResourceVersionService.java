@@ -0,0 +1,193 @@
+package org.ex9.contractorservice.service.version;
+
+import lombok.extern.log4j.Log4j2;
+import org.ex9.contractorservice.enums.VersionedResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Реестр версий ресурсов для формирования ETag.
+ *
+ * <p>Версии хранятся в памяти, поэтому проверка {@code If-None-Match} не обращается ни к БД,
+ * ни к Redis. Для справочников ведётся одна версия на весь список. ETag контрагента строится
+ * по версии строки ({@code contractor.version}) и штампу версий справочников ({@link #referencesStamp()}).</p>
+ *
+ * <p>Версии увеличиваются после фиксации транзакции, изменившей ресурс. Источник истины —
+ * хеш {@value #VERSIONS_KEY} в Redis: новое значение получается через {@code HINCRBY}
+ * и рассылается остальным экземплярам сервиса через канал {@value #VERSIONS_CHANNEL}.
+ * Pub/sub не гарантирует доставку, поэтому версии периодически перечитываются из хеша
+ * ({@code http.etag.version-resync-interval}).</p>
+ *
+ * <p>Пока версии не удалось прочитать из Redis (например, экземпляр запущен при недоступном Redis)
+ * или изменение не удалось записать в хеш, версии считаются неизвестными ({@link #isKnown()}),
+ * ETag не выдаются и 304 не отвечается. Изменения, не записанные в хеш, досылаются
+ * при следующей успешной синхронизации.</p>
+ * @author Краковцев Артём
+ */
+@Service
+@Log4j2
+public class ResourceVersionService implements MessageListener {
+
+    public static final String VERSIONS_KEY = "contractor-service:versions";
+    public static final String VERSIONS_CHANNEL = "contractor-service:versions";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final AtomicLongArray references = new AtomicLongArray(VersionedResource.values().length);
+
+    /** Справочники, изменение которых не удалось записать в Redis */
+    private final Set<VersionedResource> unshared = ConcurrentHashMap.newKeySet();
+
+    /** Совпадают ли версии с хешем в Redis */
+    private volatile boolean known;
+
+    @Autowired
+    public ResourceVersionService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        resync();
+    }
+
+    /**
+     * Известны ли текущие версии. Пока они неизвестны, по ним нельзя отвечать 304.
+     *
+     * @return {@code true}, если версии синхронизированы с Redis
+     */
+    public boolean isKnown() {
+        return known;
+    }
+
+    /**
+     * Возвращает ETag списка справочника.
+     *
+     * @param resource справочник
+     * @return строгий ETag в кавычках либо {@code null}, если версии неизвестны
+     */
+    public String etag(VersionedResource resource) {
+        if (!known) {
+            return null;
+        }
+        return "\"" + resource.name().toLowerCase() + "-" + references.get(resource.ordinal()) + "\"";
+    }
+
+    /**
+     * Возвращает штамп версий справочников для ETag контрагента: ответ содержит названия
+     * страны, производства и организационной формы.
+     *
+     * @return версии стран, производств и организационных форм через точку
+     *         либо {@code null}, если версии неизвестны
+     */
+    public String referencesStamp() {
+        if (!known) {
+            return null;
+        }
+        return references.get(VersionedResource.COUNTRIES.ordinal())
+                + "." + references.get(VersionedResource.INDUSTRIES.ordinal())
+                + "." + references.get(VersionedResource.ORG_FORMS.ordinal());
+    }
+
+    /**
+     * Увеличивает версию справочника после фиксации текущей транзакции.
+     *
+     * @param resource изменённый справочник
+     */
+    public void bump(VersionedResource resource) {
+        afterCommit(() -> increment(resource));
+    }
+
+    /**
+     * Досылает в Redis изменения, которые не удалось записать, и перечитывает версии из хеша.
+     * После неудачной синхронизации версии считаются неизвестными.
+     */
+    @Scheduled(fixedDelayString = "${http.etag.version-resync-interval:30000}",
+            initialDelayString = "${http.etag.version-resync-interval:30000}")
+    public void resync() {
+        try {
+            for (VersionedResource resource : unshared) {
+                share(resource);
+            }
+            Map<Object, Object> stored = redisTemplate.opsForHash().entries(VERSIONS_KEY);
+            if (!known) {
+                // локальные версии могли разойтись с хешем, пока Redis был недоступен
+                for (int i = 0; i < references.length(); i++) {
+                    references.set(i, 0);
+                }
+            }
+            stored.forEach((field, value) -> apply(field.toString(), Long.parseLong(value.toString())));
+            known = unshared.isEmpty();
+        } catch (Exception e) {
+            if (known) {
+                log.warn("Could not resync resource versions from Redis: {}", e.getMessage());
+            }
+            known = false;
+        }
+    }
+
+    /**
+     * Применяет версию, увеличенную другим экземпляром сервиса.
+     *
+     * @param message сообщение вида {@code поле=версия}
+     * @param pattern шаблон канала
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('=');
+        if (separator > 0) {
+            apply(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        }
+    }
+
+    private void increment(VersionedResource resource) {
+        references.incrementAndGet(resource.ordinal());
+        unshared.add(resource);
+        try {
+            share(resource);
+        } catch (Exception e) {
+            known = false;
+            log.warn("Could not share version of {} through Redis: {}", resource, e.getMessage());
+        }
+    }
+
+    private void share(VersionedResource resource) {
+        Long shared = redisTemplate.opsForHash().increment(VERSIONS_KEY, resource.name(), 1);
+        unshared.remove(resource);
+        if (shared != null) {
+            references.accumulateAndGet(resource.ordinal(), shared, Math::max);
+            redisTemplate.convertAndSend(VERSIONS_CHANNEL, resource.name() + "=" + shared);
+        }
+    }
+
+    private void apply(String field, long version) {
+        try {
+            references.accumulateAndGet(VersionedResource.valueOf(field).ordinal(), version, Math::max);
+        } catch (IllegalArgumentException e) {
+            log.debug("Unknown version field {}", field);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package org.ex9.contractorservice.service.warmup;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Учёт наиболее часто запрашиваемых контрагентов для прогрева после запуска.
+ *
+ * <p>Обращения накапливаются в памяти и периодически одним конвейером сбрасываются
+ * в сортированное множество {@value #HOT_CONTRACTORS_KEY} через {@code ZINCRBY}, поэтому
+ * запрос контрагента не ждёт Redis. Множество общее для всех экземпляров сервиса
+ * и обрезается до {@code warmup.hot-contractors.max-tracked} самых популярных идентификаторов.</p>
+ * @author Краковцев Артём
+ */
+@Service
+@Log4j2
+public class HotContractorTracker {
+
+    public static final String HOT_CONTRACTORS_KEY = "contractor-service:hot-contractors";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @Value("${warmup.hot-contractors.max-tracked:10000}")
+    private int maxTracked;
+
+    @Value("${warmup.hot-contractors.max-pending:10000}")
+    private int maxPending;
+
+    @Autowired
+    public HotContractorTracker(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Учитывает обращение к контрагенту. Если до сброса накопилось слишком много
+     * разных идентификаторов, новые не учитываются.
+     *
+     * @param contractorId идентификатор контрагента
+     */
+    public void record(String contractorId) {
+        LongAdder counter = pending.get(contractorId);
+        if (counter == null) {
+            if (pending.size() >= maxPending) {
+                return;
+            }
+            counter = pending.computeIfAbsent(contractorId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Сбрасывает накопленные обращения в Redis.
+     */
+    @Scheduled(fixedDelayString = "${warmup.hot-contractors.flush-interval:10000}")
+    public void flush() {
+        Map<String, Long> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisConnection connection) -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                batch.forEach((id, hits) -> stringConnection.zIncrBy(HOT_CONTRACTORS_KEY, hits, id));
+                stringConnection.zRemRange(HOT_CONTRACTORS_KEY, 0, -(maxTracked + 1L));
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not flush {} hot contractor counters: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы самых запрашиваемых контрагентов по убыванию популярности.
+     *
+     * @param limit максимальное количество идентификаторов
+     * @return список идентификаторов; пустой, если Redis недоступен
+     */
+    public List<String> topIds(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        try {
+            Set<String> ids = redisTemplate.opsForZSet().reverseRange(HOT_CONTRACTORS_KEY, 0, limit - 1L);
+            return ids == null ? List.of() : List.copyOf(ids);
+        } catch (DataAccessException e) {
+            log.warn("Could not read hot contractors: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Map<String, Long> drain() {
+        Map<String, Long> batch = new HashMap<>();
+        Iterator<Map.Entry<String, LongAdder>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, LongAdder> entry = iterator.next();
+            iterator.remove();
+            batch.put(entry.getKey(), entry.getValue().sum());
+        }
+        return batch;
+    }
+
+}
@@ -0,0 +1,169 @@
+package org.ex9.contractorservice.service.warmup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
+import org.ex9.contractorservice.dto.country.CountryResponseDto;
+import org.ex9.contractorservice.dto.industry.IndustryResponseDto;
+import org.ex9.contractorservice.dto.orgform.OrgFormResponseDto;
+import org.ex9.contractorservice.enums.SearchTotalMode;
+import org.ex9.contractorservice.exception.ContractorNotFoundException;
+import org.ex9.contractorservice.service.ContractorService;
+import org.ex9.contractorservice.service.CountryService;
+import org.ex9.contractorservice.service.IndustryService;
+import org.ex9.contractorservice.service.OrgFormService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Прогрев сервиса после запуска.
+ *
+ * <p>Загружает справочники в кэш Redis, запрашивает самых популярных контрагентов
+ * (из {@link HotContractorTracker}) и заданных в {@code warmup.contractor-ids}, затем выполняет
+ * серию типовых поисковых запросов, чтобы драйвер подготовил серверные prepared statements
+ * на соединениях пула, а JIT скомпилировал горячий код.</p>
+ *
+ * <p>Spring Boot переводит приложение в состояние готовности ({@code ReadinessState.ACCEPTING_TRAFFIC})
+ * только после завершения всех {@link ApplicationRunner}, поэтому трафик приходит на прогретый экземпляр.
+ * Прогрев ограничен {@code warmup.timeout}, а ошибки не прерывают запуск: неудачная загрузка справочника,
+ * контрагента или поисковый запрос пропускаются, и прогрев продолжается со следующего. Если подряд
+ * не удались все типовые поиски, оставшиеся итерации поиска не выполняются.</p>
+ * @author Краковцев Артём
+ */
+@Component
+@ConditionalOnProperty(value = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Log4j2
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final int SEARCH_PAGE_SIZE = 20;
+
+    private final CountryService countryService;
+    private final IndustryService industryService;
+    private final OrgFormService orgFormService;
+    private final ContractorService contractorService;
+    private final HotContractorTracker hotContractorTracker;
+
+    @Value("${warmup.timeout:30s}")
+    private Duration timeout;
+
+    @Value("${warmup.top-contractors:200}")
+    private int topContractors;
+
+    @Value("${warmup.contractor-ids:}")
+    private List<String> contractorIds;
+
+    @Value("${warmup.search-iterations:50}")
+    private int searchIterations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + timeout.toNanos();
+        List<SearchContractorRequestDto> searches = warmReferences();
+        int contractors = warmContractors(deadline);
+        int queries = warmSearch(searches, deadline);
+        log.info("Warm-up finished in {} ms: {} contractors, {} search queries",
+                Duration.ofNanos(System.nanoTime() - startedAt).toMillis(), contractors, queries);
+    }
+
+    /**
+     * Загружает справочники и строит по ним набор типовых поисковых запросов.
+     * Справочник, который не удалось загрузить, не участвует в запросах.
+     */
+    List<SearchContractorRequestDto> warmReferences() {
+        List<CountryResponseDto> countries = loadReference("countries", countryService::findAll);
+        List<IndustryResponseDto> industries = loadReference("industries", industryService::findAll);
+        List<OrgFormResponseDto> orgForms = loadReference("org forms", orgFormService::findAll);
+
+        List<SearchContractorRequestDto> searches = new ArrayList<>();
+        searches.add(search());
+        if (!countries.isEmpty()) {
+            SearchContractorRequestDto byCountry = search();
+            byCountry.setCountry(countries.get(0).getName());
+            searches.add(byCountry);
+        }
+        if (!industries.isEmpty()) {
+            SearchContractorRequestDto byIndustry = search();
+            byIndustry.setIndustry(industries.get(0).getId());
+            searches.add(byIndustry);
+        }
+        if (!orgForms.isEmpty()) {
+            SearchContractorRequestDto byOrgForm = search();
+            byOrgForm.setOrgForm(orgForms.get(0).getName());
+            searches.add(byOrgForm);
+        }
+        SearchContractorRequestDto byName = search();
+        byName.setContractorSearch("ооо");
+        searches.add(byName);
+        return searches;
+    }
+
+    int warmContractors(long deadline) {
+        Set<String> ids = new LinkedHashSet<>(contractorIds);
+        ids.addAll(hotContractorTracker.topIds(topContractors));
+
+        int warmed = 0;
+        for (String id : ids) {
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+            try {
+                contractorService.findById(id);
+                warmed++;
+            } catch (ContractorNotFoundException e) {
+                log.debug("Warm-up contractor {} not found", id);
+            } catch (RuntimeException e) {
+                log.warn("Warm-up of contractor {} failed, skipping it", id, e);
+            }
+        }
+        return warmed;
+    }
+
+    int warmSearch(List<SearchContractorRequestDto> searches, long deadline) {
+        int executed = 0;
+        int failedInRow = 0;
+        for (int i = 0; i < searchIterations && System.nanoTime() <= deadline; i++) {
+            try {
+                contractorService.searchPage(searches.get(i % searches.size()));
+                executed++;
+                failedInRow = 0;
+            } catch (RuntimeException e) {
+                log.warn("Warm-up search {} failed, skipping it", i % searches.size(), e);
+                if (++failedInRow >= searches.size()) {
+                    log.warn("All warm-up searches failed, skipping the remaining iterations");
+                    break;
+                }
+            }
+        }
+        return executed;
+    }
+
+    private static <T> List<T> loadReference(String name, Supplier<List<T>> loader) {
+        try {
+            return loader.get();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up of {} failed, skipping it", name, e);
+            return List.of();
+        }
+    }
+
+    private static SearchContractorRequestDto search() {
+        SearchContractorRequestDto request = new SearchContractorRequestDto();
+        request.setPage(0);
+        request.setSize(SEARCH_PAGE_SIZE);
+        request.setTotalMode(SearchTotalMode.AUTO);
+        return request;
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.ex9.contractorservice.web;
+
+import org.ex9.contractorservice.enums.VersionedResource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Помечает GET-метод контроллера, ответ которого снабжается ETag по версии ресурса
+ * и может быть заменён ответом 304 Not Modified (см. {@link ConditionalGetInterceptor}).
+ * @author Краковцев Артём
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    /**
+     * Справочник, версия которого определяет ETag.
+     */
+    VersionedResource value();
+
+}
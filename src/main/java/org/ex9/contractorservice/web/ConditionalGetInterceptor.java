@@ -0,0 +1,105 @@
+package org.ex9.contractorservice.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.ex9.contractorservice.enums.VersionedResource;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Перехватчик условных GET-запросов для методов, помеченных {@link ConditionalGet}.
+ *
+ * <p>ETag вычисляется по версии ресурса из {@link ResourceVersionService} до вызова контроллера.
+ * Если он совпадает с {@code If-None-Match}, сразу возвращается 304 без обращения к БД и Redis.
+ * Версия увеличивается только после фиксации изменения, поэтому тело ответа может быть новее
+ * своего ETag (клиент лишь получит лишний 200), но никогда не старее.</p>
+ *
+ * <p>Один и тот же список отдаётся в JSON, Smile и CBOR, поэтому ответ помечается {@code Vary: Accept},
+ * а ETag зависит от представления, выбранного по {@code Accept} так же, как его выберут конвертеры:
+ * JSON, если он допустим, иначе Smile или CBOR.</p>
+ *
+ * <p>Пока версии неизвестны ({@link ResourceVersionService#isKnown()}), ETag не выдаётся,
+ * а ответ помечается {@code no-cache}: устаревшая версия могла бы подтвердить устаревший список.</p>
+ * @author Краковцев Артём
+ */
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ResourceVersionService resourceVersionService;
+    private final Duration referenceMaxAge;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+
+        VersionedResource resource = conditionalGet.value();
+        String etag = resourceVersionService.etag(resource);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (etag == null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            return true;
+        }
+        CacheControl cacheControl = CacheControl.maxAge(referenceMaxAge).mustRevalidate();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        return !new ServletWebRequest(request, response).checkNotModified(forRepresentation(etag, request));
+    }
+
+    /**
+     * Добавляет к ETag суффикс бинарного представления; ETag JSON-ответа не меняется.
+     */
+    private static String forRepresentation(String etag, HttpServletRequest request) {
+        String suffix = representation(request.getHeader(HttpHeaders.ACCEPT));
+        return suffix == null ? etag : etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+
+    private static String representation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() <= 0) {
+                continue;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (mediaType.includes(SMILE)) {
+                return "smile";
+            }
+            if (mediaType.includes(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+        }
+        return null;
+    }
+
+}
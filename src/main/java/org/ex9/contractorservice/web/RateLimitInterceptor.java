@@ -0,0 +1,55 @@
+package org.ex9.contractorservice.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.ex9.contractorservice.exception.RateLimitExceededException;
+import org.ex9.contractorservice.service.ratelimit.RateLimiter;
+import org.ex9.contractorservice.utils.AuthInfo;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Перехватчик, ограничивающий частоту запросов к методам, помеченным {@link RateLimited}.
+ *
+ * <p>Клиент определяется по субъекту JWT ({@link AuthInfo#getUsername()}), а для анонимных
+ * запросов — по IP-адресу. При исчерпании лимита выбрасывается {@link RateLimitExceededException},
+ * которая превращается в ответ 429 с заголовком {@code Retry-After}, и запрос не доходит до БД.</p>
+ * @author Краковцев Артём
+ */
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+
+        Duration retryAfter = rateLimiter.tryAcquire(rateLimited.value(), clientKey(request));
+        if (!retryAfter.isZero()) {
+            throw new RateLimitExceededException("Too many requests, retry after " + retryAfter.toMillis() + " ms", retryAfter);
+        }
+        return true;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + AuthInfo.getUsername();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+}
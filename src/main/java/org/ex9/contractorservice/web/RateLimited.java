@@ -0,0 +1,22 @@
+package org.ex9.contractorservice.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Помечает метод контроллера, запросы к которому ограничиваются по клиенту
+ * (см. {@link RateLimitInterceptor}).
+ * @author Краковцев Артём
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    /**
+     * Имя лимита из {@code rate-limit.limits}. Методы с одним именем расходуют общий лимит клиента.
+     */
+    String value();
+
+}
@@ -0,0 +1,62 @@
+package org.ex9.contractorservice.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * ETag контрагента и разбор {@code If-Match} для оптимистической блокировки.
+ *
+ * <p>ETag имеет вид {@code "<версия строки>.<штамп справочников>"}, например {@code "3.5.1.2"}:
+ * версия строки ({@code contractor.version}) меняется при каждом изменении контрагента, штамп
+ * справочников — при изменении названий стран, производств и организационных форм, которые
+ * входят в ответ. Один и тот же ETag возвращается на {@code GET /contractor/{id}} и на сохранение,
+ * служит для {@code If-None-Match} и принимается в {@code If-Match}: для проверки версии
+ * используется только первая часть, поэтому принимается и голая версия ({@code "3"}).</p>
+ * @author Краковцев Артём
+ */
+public final class VersionEtag {
+
+    private VersionEtag() {
+    }
+
+    /**
+     * Формирует строгий ETag контрагента.
+     *
+     * @param version         версия строки
+     * @param referencesStamp штамп версий справочников; {@code null}, если версии справочников неизвестны
+     * @return ETag в кавычках или {@code null}, если версия строки или штамп неизвестны
+     */
+    public static String of(Long version, String referencesStamp) {
+        return version != null && referencesStamp != null ? "\"" + version + "." + referencesStamp + "\"" : null;
+    }
+
+    /**
+     * Извлекает ожидаемую версию строки из заголовка {@code If-Match}.
+     *
+     * @param ifMatch значение заголовка
+     * @return версия или {@code null}, если заголовок не задан или равен {@code *}
+     * @throws ResponseStatusException 400, если значение не является ETag контрагента
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.strip();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        int separator = value.indexOf('.');
+        if (separator >= 0) {
+            value = value.substring(0, separator);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must be a contractor ETag, e.g. \"3.5.1.2\"");
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package org.ex9.contractorservice.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение размера и времени (де)сериализации страницы из 1000 контрагентов
+ * в JSON, JSON+gzip, Smile и CBOR. Результаты публикуются в отчёт JUnit.
+ *
+ * <p>Замер времени не входит в обычный прогон тестов: тест помечен тегом {@code benchmark}
+ * и выполняется командой {@code mvn test -Pbenchmark}.</p>
+ */
+@Tag("benchmark")
+class ContractorPayloadBenchmarkTest {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    void compareFormatsForThousandItemPage(TestReporter reporter) throws Exception {
+        List<ContractorResponseDto> page = page();
+
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+        Result jsonResult = measure("JSON", json, page);
+        Result smileResult = measure("Smile", smile, page);
+        Result cborResult = measure("CBOR", cbor, page);
+        int gzipSize = gzip(json.writeValueAsBytes(page)).length;
+
+        for (Result result : List.of(jsonResult, smileResult, cborResult)) {
+            reporter.publishEntry(result.format(), String.format("%d bytes, write %d us, read %d us",
+                    result.size(), result.writeMicros(), result.readMicros()));
+        }
+        reporter.publishEntry("JSON+gzip", gzipSize + " bytes");
+
+        assertEquals(page, smile.readValue(smile.writeValueAsBytes(page), listType(smile)));
+        assertEquals(page, cbor.readValue(cbor.writeValueAsBytes(page), listType(cbor)));
+        assertTrue(smileResult.size() < jsonResult.size());
+        assertTrue(cborResult.size() < jsonResult.size());
+        assertTrue(gzipSize < jsonResult.size());
+    }
+
+    private Result measure(String format, ObjectMapper mapper, List<ContractorResponseDto> page) throws IOException {
+        JavaType type = listType(mapper);
+        byte[] bytes = mapper.writeValueAsBytes(page);
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(page), type);
+        }
+
+        long[] writes = new long[ITERATIONS];
+        long[] reads = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            bytes = mapper.writeValueAsBytes(page);
+            writes[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            mapper.readValue(bytes, type);
+            reads[i] = System.nanoTime() - start;
+        }
+        return new Result(format, bytes.length, median(writes) / 1000, median(reads) / 1000);
+    }
+
+    private static JavaType listType(ObjectMapper mapper) {
+        return mapper.getTypeFactory().constructCollectionType(List.class, ContractorResponseDto.class);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<ContractorResponseDto> page() {
+        List<ContractorResponseDto> page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(new ContractorResponseDto(
+                    String.format("CTR%06d", i),
+                    i % 10 == 0 ? null : String.format("CTR%06d", i / 10),
+                    "ООО Контрагент " + i,
+                    "Общество с ограниченной ответственностью «Контрагент " + i + "»",
+                    String.format("77%08d", i),
+                    String.format("10277%08d", i),
+                    "Россия",
+                    "Услуги финансового рынка",
+                    "Общество с ограниченной ответственностью",
+                    1L));
+        }
+        return page;
+    }
+
+    private record Result(String format, int size, long writeMicros, long readMicros) {
+
+    }
+
+}
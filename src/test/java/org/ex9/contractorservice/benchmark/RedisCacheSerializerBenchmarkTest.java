@@ -0,0 +1,99 @@
+package org.ex9.contractorservice.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.ex9.contractorservice.cache.CompactRedisSerializer;
+import org.ex9.contractorservice.dto.industry.IndustryResponseDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonTypeInfo.As.PROPERTY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение размера значения и времени (де)сериализации справочника из 500 отраслей
+ * для текущего JSON-сериализатора кэша с типизацией и компактного Smile-сериализатора
+ * без сжатия и со сжатием. Результаты публикуются в отчёт JUnit.
+ *
+ * <p>Выполняется только в профиле {@code benchmark} ({@code mvn test -Pbenchmark}).</p>
+ */
+@Tag("benchmark")
+class RedisCacheSerializerBenchmarkTest {
+
+    private static final int SIZE = 500;
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    void compareCacheSerializers(TestReporter reporter) {
+        List<IndustryResponseDto> industries = industries();
+
+        ObjectMapper jsonMapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+        jsonMapper.activateDefaultTyping(jsonMapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL, PROPERTY);
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).registerModule(new ParameterNamesModule());
+        JavaType type = smileMapper.getTypeFactory().constructCollectionType(List.class, IndustryResponseDto.class);
+
+        Result json = measure("JSON+typing", new GenericJackson2JsonRedisSerializer(jsonMapper), industries);
+        Result smile = measure("Smile", new CompactRedisSerializer<>(smileMapper, type, Integer.MAX_VALUE), industries);
+        Result deflated = measure("Smile+Deflate", new CompactRedisSerializer<>(smileMapper, type, 0), industries);
+
+        for (Result result : List.of(json, smile, deflated)) {
+            reporter.publishEntry(result.serializer(), String.format("%d bytes, write %d ns/op, read %d ns/op",
+                    result.size(), result.writeNanos(), result.readNanos()));
+        }
+
+        assertTrue(smile.size() < json.size());
+        assertTrue(deflated.size() < smile.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Result measure(String name, RedisSerializer<?> serializer, List<IndustryResponseDto> value) {
+        RedisSerializer<Object> target = (RedisSerializer<Object>) serializer;
+        byte[] bytes = target.serialize(value);
+        assertEquals(value, target.deserialize(bytes));
+        for (int i = 0; i < WARMUP; i++) {
+            target.deserialize(target.serialize(value));
+        }
+
+        long[] writes = new long[ITERATIONS];
+        long[] reads = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            bytes = target.serialize(value);
+            writes[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            target.deserialize(bytes);
+            reads[i] = System.nanoTime() - start;
+        }
+        return new Result(name, bytes.length, median(writes), median(reads));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static List<IndustryResponseDto> industries() {
+        List<IndustryResponseDto> industries = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            industries.add(new IndustryResponseDto(i, "Производство и торговля, направление " + i));
+        }
+        return industries;
+    }
+
+    private record Result(String serializer, int size, long writeNanos, long readNanos) {
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.ex9.contractorservice.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.ex9.contractorservice.dto.country.CountryResponseDto;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRedisSerializerTest {
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).registerModule(new ParameterNamesModule());
+    private final JavaType type = smileMapper.getTypeFactory().constructCollectionType(List.class, CountryResponseDto.class);
+
+    @Test
+    void serialize_smallValue_shouldStorePlainSmileWithoutClassNames() {
+        CompactRedisSerializer<List<CountryResponseDto>> serializer = new CompactRedisSerializer<>(smileMapper, type, 4096);
+        List<CountryResponseDto> countries = List.of(new CountryResponseDto("RU", "Россия"));
+
+        byte[] bytes = serializer.serialize(countries);
+
+        assertEquals(CompactRedisSerializer.PLAIN, bytes[0]);
+        assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains("CountryResponseDto"));
+        assertEquals(countries, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void serialize_valueAboveThreshold_shouldCompress() {
+        CompactRedisSerializer<List<CountryResponseDto>> serializer = new CompactRedisSerializer<>(smileMapper, type, 256);
+        List<CountryResponseDto> countries = countries(200);
+
+        byte[] bytes = serializer.serialize(countries);
+
+        assertEquals(CompactRedisSerializer.DEFLATED, bytes[0]);
+        assertTrue(bytes.length < new CompactRedisSerializer<>(smileMapper, type, Integer.MAX_VALUE).serialize(countries).length);
+        assertEquals(countries, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void deserialize_unknownFormat_shouldBeTreatedAsCacheMiss() {
+        CompactRedisSerializer<List<CountryResponseDto>> serializer = new CompactRedisSerializer<>(smileMapper, type, 4096);
+
+        byte[] legacyJson = "[\"java.util.ArrayList\",[]]".getBytes(StandardCharsets.UTF_8);
+
+        assertNull(serializer.deserialize(legacyJson));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    private static List<CountryResponseDto> countries(int count) {
+        List<CountryResponseDto> countries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            countries.add(new CountryResponseDto(String.format("C%03d", i), "Страна номер " + i));
+        }
+        return countries;
+    }
+
+}
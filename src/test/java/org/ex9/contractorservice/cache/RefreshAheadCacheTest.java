@@ -0,0 +1,135 @@
+package org.ex9.contractorservice.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshAheadCacheTest {
+
+    private static final int CALLERS = 500;
+
+    @Test
+    void get_concurrentMisses_shouldLoadOnce() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("countries"), key -> null,
+                Duration.ofHours(1), Duration.ofMinutes(5), Runnable::run);
+        AtomicInteger queries = new AtomicInteger();
+        Callable<List<String>> loader = () -> {
+            queries.incrementAndGet();
+            Thread.sleep(100);
+            return List.of("RU", "US");
+        };
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return cache.get("all", loader);
+                }));
+            }
+            start.countDown();
+
+            for (Future<List<String>> result : results) {
+                assertEquals(List.of("RU", "US"), result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void get_nearExpiry_shouldServeCachedValueAndRefreshInBackground() throws Exception {
+        ConcurrentMapCache redis = new ConcurrentMapCache("countries");
+        redis.put("all", List.of("RU"));
+        RefreshAheadCache cache = new RefreshAheadCache(redis, key -> Duration.ofMinutes(1),
+                Duration.ofHours(1), Duration.ofMinutes(5), Runnable::run);
+        AtomicInteger queries = new AtomicInteger();
+        Callable<List<String>> loader = () -> {
+            queries.incrementAndGet();
+            return List.of("RU", "US");
+        };
+
+        assertEquals(List.of("RU"), cache.get("all", loader));
+        assertEquals(List.of("RU", "US"), redis.get("all", List.class));
+        assertEquals(List.of("RU", "US"), cache.get("all", loader));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void get_whenAnotherInstanceAlreadyRefreshed_shouldNotLoad() throws Exception {
+        ConcurrentMapCache redis = new ConcurrentMapCache("countries");
+        redis.put("all", List.of("RU"));
+        AtomicInteger ttlChecks = new AtomicInteger();
+        RefreshAheadCache cache = new RefreshAheadCache(redis,
+                key -> ttlChecks.getAndIncrement() == 0 ? Duration.ofMinutes(1) : Duration.ofMinutes(59),
+                Duration.ofHours(1), Duration.ofMinutes(5), Runnable::run);
+        AtomicInteger queries = new AtomicInteger();
+
+        assertEquals(List.of("RU"), cache.get("all", () -> {
+            queries.incrementAndGet();
+            return List.of("RU", "US");
+        }));
+        assertEquals(0, queries.get());
+        assertEquals(2, ttlChecks.get());
+    }
+
+    @Test
+    void get_whenEvictedDuringLoad_shouldNotCacheLoadedValue() {
+        ConcurrentMapCache redis = new ConcurrentMapCache("countries");
+        RefreshAheadCache cache = new RefreshAheadCache(redis, key -> null,
+                Duration.ofHours(1), Duration.ofMinutes(5), Runnable::run);
+
+        // загрузчик прочитал БД до сохранения, после которого ключ вытеснили
+        assertEquals(List.of("RU"), cache.get("all", () -> {
+            cache.evict("all");
+            return List.of("RU");
+        }));
+
+        assertNull(redis.get("all"));
+        assertEquals(List.of("RU", "US"), cache.get("all", () -> List.of("RU", "US")));
+        assertEquals(List.of("RU", "US"), redis.get("all", List.class));
+    }
+
+    @Test
+    void get_whenClearedDuringRefresh_shouldNotWriteStaleValueBack() {
+        ConcurrentMapCache redis = new ConcurrentMapCache("countries");
+        redis.put("all", List.of("RU"));
+        RefreshAheadCache cache = new RefreshAheadCache(redis, key -> Duration.ofMinutes(1),
+                Duration.ofHours(1), Duration.ofMinutes(5), Runnable::run);
+
+        assertEquals(List.of("RU"), cache.get("all", () -> {
+            cache.clear();
+            return List.of("RU");
+        }));
+
+        assertNull(redis.get("all"));
+    }
+
+    @Test
+    void get_whenLoaderFails_shouldPropagateToAllWaiters() {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("countries"), key -> null,
+                Duration.ofHours(1), Duration.ofMinutes(5), Runnable::run);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> cache.get("all", () -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertEquals("db down", error.getMessage());
+        assertNull(cache.get("all"));
+    }
+
+}
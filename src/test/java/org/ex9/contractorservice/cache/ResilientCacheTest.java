@@ -0,0 +1,87 @@
+package org.ex9.contractorservice.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientCacheTest {
+
+    @Mock
+    private Cache redis;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker;
+    private ResilientCache cache;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker("test", 2, Duration.ofSeconds(10), clock::get);
+        cache = new ResilientCache(redis, circuitBreaker, Duration.ofSeconds(60));
+    }
+
+    @Test
+    void get_whenRedisDown_shouldLoadOnceAndServeLocalCopyWithoutCallingRedis() {
+        when(redis.get(eq("all"), any(Callable.class))).thenThrow(new RedisConnectionFailureException("down"));
+        AtomicInteger queries = new AtomicInteger();
+        Callable<List<String>> loader = () -> {
+            queries.incrementAndGet();
+            return List.of("RU");
+        };
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(List.of("RU"), cache.get("all", loader));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        verify(redis, times(2)).get(eq("all"), any(Callable.class));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void get_whenLoaderFails_shouldPropagateAndKeepBreakerClosed() {
+        when(redis.get(eq("all"), any(Callable.class))).thenAnswer(invocation -> invocation.<Callable<?>>getArgument(1).call());
+
+        for (int i = 0; i < 3; i++) {
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> cache.get("all", () -> {
+                throw new IllegalStateException("db down");
+            }));
+            assertEquals("db down", error.getMessage());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void get_whenRedisRecovers_shouldReplayEvictionsMadeDuringOutage() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        cache.evict("all");
+        verify(redis, never()).evict(any());
+
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        when(redis.get(eq("all"), any(Callable.class))).thenAnswer(invocation -> invocation.<Callable<?>>getArgument(1).call());
+
+        assertEquals(List.of("RU"), cache.get("all", () -> List.of("RU")));
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        verify(redis).evict("all");
+    }
+
+}
@@ -49,7 +49,7 @@ public class ContractorControllerErrorIT {
 	void findById_whenContractorNotFound_shouldReturnErrorResponse() throws Exception {
 		String id = "non-existing-id";
 
-		Mockito.when(contractorService.findById(id))
+		Mockito.when(contractorService.findById(id, null))
 				.thenThrow(new ContractorNotFoundException("Contractor with ID " + id + " not found"));
 
 		mockMvc.perform(get("/contractor/{id}", id))
@@ -8,6 +8,9 @@ import org.ex9.contractorservice.exception.CountryNotFoundException;
 import org.ex9.contractorservice.exception.IndustryNotFoundException;
 import org.ex9.contractorservice.exception.OrgFormNotFoundException;
 import org.ex9.contractorservice.service.ContractorService;
+import org.ex9.contractorservice.service.idempotency.IdempotencyService;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
+import org.ex9.contractorservice.service.warmup.HotContractorTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,6 +22,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,6 +33,15 @@ class ContractorControllerTest {
 	@Mock
 	ContractorService contractorService;
 
+	@Mock
+	HotContractorTracker hotContractorTracker;
+
+	@Mock
+	IdempotencyService idempotencyService;
+
+	@Mock
+	ResourceVersionService resourceVersionService;
+
 	@InjectMocks
 	ContractorController contractorController;
 
@@ -60,21 +73,28 @@ class ContractorControllerTest {
 
 		searchRequestDto = new SearchContractorRequestDto();
 		searchRequestDto.setContractorId("CTR001");
+
+		lenient().when(resourceVersionService.referencesStamp()).thenReturn("5.1.2");
+		lenient().when(idempotencyService.execute(any(), any(), any(), any()))
+				.thenAnswer(invocation -> new IdempotencyService.Result<>(invocation.<Supplier<?>>getArgument(3).get(), false));
 	}
 
 	@Test
 	@DisplayName("getById() return contractor by id")
 	void getById_existingContractor_shouldReturnContractor() {
-		when(contractorService.findById("CTR001")).thenReturn(responseDto);
+		responseDto.setVersion(3L);
+		when(contractorService.findById("CTR001", null)).thenReturn(responseDto);
 
-		ResponseEntity<ContractorResponseDto> response = contractorController.getById("CTR001");
+		ResponseEntity<ContractorResponseDto> response = contractorController.getById("CTR001", null);
 
 		assertNotNull(response);
 		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("\"3.5.1.2\"", response.getHeaders().getETag());
 		assertNotNull(response.getBody());
 		assertEquals("CTR001", response.getBody().getId());
 		assertEquals("ООО Ромашка", response.getBody().getName());
-		verify(contractorService).findById("CTR001");
+		verify(contractorService).findById("CTR001", null);
+		verify(hotContractorTracker).record("CTR001");
 	}
 
 	@Test
@@ -92,56 +112,68 @@ class ContractorControllerTest {
 	@Test
 	@DisplayName("save() return saved contractor")
 	void save_validContractor_shouldReturnContractor() {
-		when(contractorService.save(any(ContractorRequestDto.class))).thenReturn(responseDto);
+		when(contractorService.save(any(ContractorRequestDto.class), isNull(), isNull())).thenReturn(responseDto);
 
-		ResponseEntity<ContractorResponseDto> response = contractorController.save(requestDto);
+		ResponseEntity<ContractorResponseDto> response = contractorController.save(requestDto, null, null);
 
 		assertNotNull(response);
 		assertEquals(HttpStatus.OK, response.getStatusCode());
 		assertNotNull(response.getBody());
 		assertEquals("CTR001", response.getBody().getId());
 		assertEquals("ООО Ромашка", response.getBody().getName());
-		verify(contractorService).save(requestDto);
+		verify(contractorService).save(requestDto, null, null);
+	}
+
+	@Test
+	@DisplayName("save() passes the version from GET ETag in If-Match")
+	void save_withIfMatchFromGet_shouldPassRowVersion() {
+		responseDto.setVersion(4L);
+		when(contractorService.save(any(ContractorRequestDto.class), isNull(), eq(3L))).thenReturn(responseDto);
+
+		ResponseEntity<ContractorResponseDto> response = contractorController.save(requestDto, null, "\"3.5.1.2\"");
+
+		assertEquals("\"4.5.1.2\"", response.getHeaders().getETag());
+		verify(contractorService).save(requestDto, null, 3L);
 	}
 
 	@Test
 	@DisplayName("save() throw exception when parent not exist")
 	void save_nonParentExist_shouldThrowException() {
-		when(contractorService.save(any(ContractorRequestDto.class))).thenThrow(new ContractorNotFoundException("Parent contractor not found"));
+		when(contractorService.save(any(ContractorRequestDto.class), isNull(), isNull())).thenThrow(new ContractorNotFoundException("Parent contractor not found"));
 
-		assertThrows(ContractorNotFoundException.class, () -> contractorController.save(requestDto));
+		assertThrows(ContractorNotFoundException.class, () -> contractorController.save(requestDto, null, null));
 	}
 
 	@Test
 	@DisplayName("save() throw exception when industry not exist")
 	void save_nonIndustryExist_shouldThrowException() {
-		when(contractorService.save(any(ContractorRequestDto.class))).thenThrow(new IndustryNotFoundException("Industry contractor not found"));
+		when(contractorService.save(any(ContractorRequestDto.class), isNull(), isNull())).thenThrow(new IndustryNotFoundException("Industry contractor not found"));
 
-		assertThrows(IndustryNotFoundException.class, () -> contractorController.save(requestDto));
+		assertThrows(IndustryNotFoundException.class, () -> contractorController.save(requestDto, null, null));
 	}
 
 	@Test
 	@DisplayName("save() throw exception when orgForm not exist")
 	void save_nonOrgFormNotExist_shouldThrowException() {
-		when(contractorService.save(any(ContractorRequestDto.class))).thenThrow(new OrgFormNotFoundException("OrgForm contractor not found"));
+		when(contractorService.save(any(ContractorRequestDto.class), isNull(), isNull())).thenThrow(new OrgFormNotFoundException("OrgForm contractor not found"));
 
-		assertThrows(OrgFormNotFoundException.class, () -> contractorController.save(requestDto));
+		assertThrows(OrgFormNotFoundException.class, () -> contractorController.save(requestDto, null, null));
 	}
 
 	@Test
 	@DisplayName("save() throw exception when contractor id not exist")
 	void save_nonCountryExist_shouldThrowException() {
-		when(contractorService.save(any(ContractorRequestDto.class))).thenThrow(new CountryNotFoundException("Country contractor not found"));
+		when(contractorService.save(any(ContractorRequestDto.class), isNull(), isNull())).thenThrow(new CountryNotFoundException("Country contractor not found"));
 
-		assertThrows(CountryNotFoundException.class, () -> contractorController.save(requestDto));
+		assertThrows(CountryNotFoundException.class, () -> contractorController.save(requestDto, null, null));
 	}
 
 	@Test
 	@DisplayName("search() return dto")
 	void search_validRequest_shouldReturnContractors() {
-		when(contractorService.search(any(SearchContractorRequestDto.class))).thenReturn(List.of(responseDto));
+		when(contractorService.search(any(SearchContractorRequestDto.class), isNull())).thenReturn(List.of(responseDto));
 
-		ResponseEntity<List<ContractorResponseDto>> response = contractorController.search(searchRequestDto);
+		ResponseEntity<List<ContractorResponseDto>> response = contractorController.search(searchRequestDto, null);
 
 		assertNotNull(response);
 		assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -149,7 +181,7 @@ class ContractorControllerTest {
 		assertEquals(1, response.getBody().size());
 		assertEquals("CTR001", response.getBody().get(0).getId());
 		assertEquals("ООО Ромашка", response.getBody().get(0).getName());
-		verify(contractorService).search(searchRequestDto);
+		verify(contractorService).search(searchRequestDto, null);
 	}
 
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
 import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
 import org.ex9.contractorservice.exception.ContractorNotFoundException;
 import org.ex9.contractorservice.service.ContractorService;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
 import org.ex9.contractorservice.utils.AuthInfo;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -13,6 +14,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -21,6 +23,8 @@ import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,16 +44,30 @@ class UiContractorControllerTest {
         public ContractorService contractorService() {
             return Mockito.mock(ContractorService.class);
         }
+
+        @Bean
+        @Primary
+        public ResourceVersionService knownResourceVersionService() {
+            ResourceVersionService versionService = Mockito.mock(ResourceVersionService.class);
+            when(versionService.referencesStamp()).thenReturn("5.1.2");
+            return versionService;
+        }
     }
 
     @Test
     @WithMockUser(authorities = {"CONTRACTOR_SUPERUSER"})
     void testGetContractorById_success() throws Exception {
-        when(contractorService.findById("123")).thenReturn(any(ContractorResponseDto.class));
+        ContractorResponseDto contractor = ContractorResponseDto.builder()
+                .id("1")
+                .name("Test")
+                .version(3L)
+                .build();
+        when(contractorService.findById("1")).thenReturn(contractor);
 
         mockMvc.perform(get("/ui/contractor/contractor/1")
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"3.5.1.2")));
     }
 
     @Test
@@ -117,8 +135,9 @@ class UiContractorControllerTest {
                 .id("123")
                 .name("Test")
                 .country("РФ")
+                .version(1L)
                 .build();
-        when(contractorService.save(any(ContractorRequestDto.class), eq("superuser"))).thenReturn(contractor);
+        when(contractorService.save(any(ContractorRequestDto.class), eq("superuser"), isNull())).thenReturn(contractor);
 
         mockMvc.perform(put("/ui/contractor/contractor/save")
                         .contentType(MediaType.APPLICATION_JSON)
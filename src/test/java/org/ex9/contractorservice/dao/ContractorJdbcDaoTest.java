@@ -1,7 +1,14 @@
 package org.ex9.contractorservice.dao;
 
+import org.ex9.contractorservice.dto.contractor.ContractorChangeDto;
+import org.ex9.contractorservice.dto.contractor.ContractorFacetsDto;
+import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorSuggestionDto;
 import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
+import org.ex9.contractorservice.dto.contractor.SparseContractorResponseDto;
+import org.ex9.contractorservice.enums.ContractorField;
 import org.ex9.contractorservice.exception.ContractorNotFoundException;
+import org.ex9.contractorservice.exception.ContractorVersionConflictException;
 import org.ex9.contractorservice.model.Contractor;
 import org.ex9.contractorservice.model.Country;
 import org.ex9.contractorservice.model.Industry;
@@ -19,9 +26,13 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,6 +108,34 @@ class ContractorJdbcDaoTest {
 		));
 	}
 
+	@Test
+	@DisplayName("findResponsesByIds() return only existing contractors")
+	void findResponsesByIds_shouldReturnExistingContractors() {
+		List<ContractorResponseDto> result = contractorJdbcDao.findResponsesByIds(List.of("CTR002", "CTR404", "CTR001"));
+
+		assertEquals(2, result.size());
+		assertEquals(Set.of("CTR001", "CTR002"), result.stream().map(ContractorResponseDto::getId).collect(Collectors.toSet()));
+	}
+
+	@Test
+	@DisplayName("findResponsesByInns() group matches by requested INN")
+	void findResponsesByInns_shouldGroupByInn() {
+		Map<String, List<ContractorResponseDto>> result = contractorJdbcDao.findResponsesByInns(List.of("987654321098", "000000000000"));
+
+		assertEquals(Set.of("987654321098"), result.keySet());
+		assertEquals("CTR002", result.get("987654321098").getFirst().getId());
+		assertEquals("Россия", result.get("987654321098").getFirst().getCountry());
+	}
+
+	@Test
+	@DisplayName("findResponsesByOgrns() group matches by requested OGRN")
+	void findResponsesByOgrns_shouldGroupByOgrn() {
+		Map<String, List<ContractorResponseDto>> result = contractorJdbcDao.findResponsesByOgrns(List.of("1234567890123"));
+
+		assertEquals(1, result.get("1234567890123").size());
+		assertEquals("CTR001", result.get("1234567890123").getFirst().getId());
+	}
+
 	@Test
 	@DisplayName("findById() return exist contractor")
 	void findById_existingContractor_shouldReturnContractor() {
@@ -171,6 +210,57 @@ class ContractorJdbcDaoTest {
 		assertEquals("999888777666", foundContractor.getInn());
 	}
 
+	@Test
+	@DisplayName("update() with expected version increments version")
+	void update_matchingVersion_shouldIncrementVersion() {
+		Contractor contractor = contractorJdbcDao.findById("CTR001").orElseThrow();
+		long version = contractor.getVersion();
+		contractor.setName("ООО Ромашка Обновлённая");
+
+		Contractor updatedContractor = contractorJdbcDao.update(contractor, version);
+
+		assertEquals(version + 1, updatedContractor.getVersion());
+		assertEquals("ООО Ромашка Обновлённая", updatedContractor.getName());
+	}
+
+	@Test
+	@DisplayName("update() with stale version throws conflict and keeps the row")
+	void update_staleVersion_shouldThrowConflict() {
+		Contractor contractor = contractorJdbcDao.findById("CTR001").orElseThrow();
+		long version = contractor.getVersion();
+		contractorJdbcDao.update(contractor.toBuilder().name("ООО Первый писатель").build(), version);
+
+		Contractor stale = contractor.toBuilder().name("ООО Второй писатель").build();
+
+		assertThrows(ContractorVersionConflictException.class, () -> contractorJdbcDao.update(stale, version));
+		Contractor found = contractorJdbcDao.findById("CTR001").orElseThrow();
+		assertEquals("ООО Первый писатель", found.getName());
+		assertEquals(version + 1, found.getVersion());
+	}
+
+	@Test
+	@DisplayName("updateIfChanged() leaves unchanged row untouched")
+	void updateIfChanged_samePayload_shouldNotUpdate() {
+		Contractor contractor = contractorJdbcDao.findById("CTR001").orElseThrow();
+		contractor.setModifyUserId("sync");
+
+		assertFalse(contractorJdbcDao.updateIfChanged(contractor, contractor.getVersion()));
+
+		Contractor found = contractorJdbcDao.findById("CTR001").orElseThrow();
+		assertEquals(contractor.getVersion(), found.getVersion());
+		assertNull(found.getModifyDate());
+		assertNull(found.getModifyUserId());
+	}
+
+	@Test
+	@DisplayName("updateIfChanged() with stale version and same payload throws conflict")
+	void updateIfChanged_samePayloadStaleVersion_shouldThrowConflict() {
+		Contractor contractor = contractorJdbcDao.findById("CTR001").orElseThrow();
+
+		assertThrows(ContractorVersionConflictException.class,
+				() -> contractorJdbcDao.updateIfChanged(contractor, contractor.getVersion() + 1));
+	}
+
 	@Test
 	@DisplayName("save() throw exception")
 	void update_nonExistingContractor_shouldThrowException() {
@@ -298,4 +388,205 @@ class ContractorJdbcDaoTest {
 		assertTrue(contractors.stream().anyMatch(c -> c.getId().equals("CTR001")));
 		assertTrue(contractors.stream().anyMatch(c -> c.getId().equals("CTR002")));
 	}
-}
\ No newline at end of file
+
+	@Test
+	@DisplayName("findResponseById() return dto of exist contractor")
+	void findResponseById_existingContractor_shouldReturnDto() {
+		Optional<ContractorResponseDto> dtoOpt = contractorJdbcDao.findResponseById("CTR002");
+		assertTrue(dtoOpt.isPresent(), "Contractor should be found");
+
+		ContractorResponseDto dto = dtoOpt.get();
+		assertEquals("CTR002", dto.getId());
+		assertEquals("CTR001", dto.getParentId());
+		assertEquals("ООО Роза", dto.getName());
+		assertEquals("987654321098", dto.getInn());
+		assertEquals("Россия", dto.getCountry());
+		assertEquals("IT", dto.getIndustry());
+		assertEquals("ООО", dto.getOrgForm());
+
+		assertFalse(contractorJdbcDao.findResponseById("NON_EXISTENT").isPresent());
+	}
+
+	@Test
+	@DisplayName("searchResponses() return dtos of found contractors")
+	void searchResponses_withEmptyFilters_shouldReturnAllDtos() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(10);
+
+		List<ContractorResponseDto> result = contractorJdbcDao.searchResponses(request);
+		assertEquals(2, result.size());
+		assertEquals("CTR001", result.get(0).getId());
+		assertNull(result.get(0).getParentId());
+		assertEquals("CTR002", result.get(1).getId());
+		assertEquals("CTR001", result.get(1).getParentId());
+	}
+
+	@Test
+	@DisplayName("search() return found contractor by combined filters")
+	void search_withCombinedFilters_shouldReturnMatchingContractors() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setParentId("CTR001");
+		request.setContractorSearch("роза");
+		request.setCountry("Рос");
+		request.setIndustry(1);
+		request.setOrgForm("ООО");
+		request.setPage(0);
+		request.setSize(10);
+
+		List<Contractor> contractors = contractorJdbcDao.search(request);
+		assertEquals(1, contractors.size());
+		assertEquals("CTR002", contractors.get(0).getId());
+
+		request.setIndustry(2);
+		assertTrue(contractorJdbcDao.search(request).isEmpty());
+	}
+
+	@Test
+	@DisplayName("searchSparse() return only requested fields and reference ids")
+	void searchSparse_withFields_shouldReturnRequestedFields() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setOrgForm("ООО");
+		request.setPage(0);
+		request.setSize(10);
+
+		List<SparseContractorResponseDto> result = contractorJdbcDao.searchSparse(request, 10,
+				EnumSet.of(ContractorField.ID, ContractorField.PARENT_ID, ContractorField.COUNTRY));
+		assertEquals(2, result.size());
+		assertEquals("CTR002", result.get(1).getId());
+		assertEquals("CTR001", result.get(1).getParentId());
+		assertEquals("RU", result.get(1).getCountryId());
+		assertNull(result.get(1).getName());
+		assertNull(result.get(1).getCountry());
+
+		Optional<SparseContractorResponseDto> byId = contractorJdbcDao.findSparseById("CTR001", EnumSet.of(ContractorField.NAME, ContractorField.INN));
+		assertTrue(byId.isPresent());
+		assertEquals("ООО Ромашка", byId.get().getName());
+		assertEquals("123456789012", byId.get().getInn());
+		assertNull(byId.get().getId());
+		assertEquals(0L, byId.get().getVersion());
+		assertNull(result.get(1).getVersion());
+		assertFalse(contractorJdbcDao.findSparseById("NON_EXISTENT", EnumSet.of(ContractorField.ID)).isPresent());
+	}
+
+	@Test
+	@DisplayName("count() and estimateCount() return number of found contractors")
+	void count_withFilters_shouldReturnNumberOfContractors() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(5);
+		request.setSize(1);
+
+		assertEquals(2L, contractorJdbcDao.count(request));
+		assertTrue(contractorJdbcDao.estimateCount(request) >= 0);
+
+		request.setParentId("CTR001");
+		assertEquals(1L, contractorJdbcDao.count(request));
+	}
+
+	@Test
+	@DisplayName("searchResponses() with limit return one extra row")
+	void searchResponses_withLimit_shouldReturnExtraRow() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(1);
+
+		assertEquals(2, contractorJdbcDao.searchResponses(request, 2).size());
+	}
+
+	@Test
+	@DisplayName("facetCounts() return counts by country, industry and orgForm")
+	void facetCounts_withFilters_shouldReturnGroupedCounts() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(10);
+
+		ContractorFacetsDto facets = contractorJdbcDao.facetCounts(request);
+		assertEquals(1, facets.getCountries().size());
+		assertEquals("RU", facets.getCountries().get(0).getId());
+		assertEquals(2L, facets.getCountries().get(0).getCount());
+		assertEquals("1", facets.getIndustries().get(0).getId());
+		assertEquals(2L, facets.getIndustries().get(0).getCount());
+		assertEquals("1", facets.getOrgForms().get(0).getId());
+
+		request.setContractorSearch("Роза");
+		facets = contractorJdbcDao.facetCounts(request);
+		assertEquals(1L, facets.getCountries().get(0).getCount());
+	}
+
+	@Test
+	@DisplayName("facetCounts() skip contractors without a reference value")
+	void facetCounts_withNullReference_shouldNotReturnNullBucket() {
+		jdbcTemplate.update("UPDATE contractor SET industry = NULL, org_form = NULL WHERE id = 'CTR002'", Map.of());
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(10);
+
+		ContractorFacetsDto facets = contractorJdbcDao.facetCounts(request);
+
+		assertEquals(2L, facets.getCountries().get(0).getCount());
+		assertEquals(1, facets.getIndustries().size());
+		assertEquals("1", facets.getIndustries().get(0).getId());
+		assertEquals(1L, facets.getIndustries().get(0).getCount());
+		assertEquals(1, facets.getOrgForms().size());
+		assertTrue(facets.getOrgForms().stream().allMatch(value -> value.getId() != null));
+	}
+
+	@Test
+	@DisplayName("suggest() return contractors by name prefix")
+	void suggest_byPrefix_shouldReturnMatchingContractors() {
+		List<ContractorSuggestionDto> suggestions = contractorJdbcDao.suggest("ооо р", 10, "1s");
+		assertEquals(2, suggestions.size());
+		assertEquals("CTR002", suggestions.get(0).getId());
+		assertEquals("ООО Роза", suggestions.get(0).getName());
+
+		assertEquals(1, contractorJdbcDao.suggest("ООО Ром", 10, "1s").size());
+		assertEquals(1, contractorJdbcDao.suggest("ооо р", 1, "1s").size());
+		assertTrue(contractorJdbcDao.suggest("Ромашка", 10, "1s").isEmpty());
+		assertTrue(contractorJdbcDao.suggest("ООО%", 10, "1s").isEmpty());
+	}
+
+	@Test
+	@DisplayName("findChanges() return changes after watermark including deactivated")
+	void findChanges_afterWatermark_shouldReturnOrderedChanges() {
+		LocalDateTime base = LocalDateTime.of(2025, 3, 20, 10, 0);
+		jdbcTemplate.update("UPDATE contractor SET modify_date = :date WHERE id = 'CTR001'", Map.of("date", base));
+		jdbcTemplate.update("UPDATE contractor SET modify_date = :date, is_active = false WHERE id = 'CTR002'",
+				Map.of("date", base.plusMinutes(1)));
+		LocalDateTime until = base.plusHours(1);
+
+		List<ContractorChangeDto> all = contractorJdbcDao.findChanges(null, null, until, 10);
+		assertEquals(List.of("CTR001", "CTR002"), all.stream().map(ContractorChangeDto::getId).toList());
+		assertTrue(all.get(0).isActive());
+		assertEquals("Россия", all.get(0).getCountry());
+		assertEquals(base, all.get(0).getChangedAt());
+		assertFalse(all.get(1).isActive());
+		assertEquals("CTR001", all.get(1).getParentId());
+
+		List<ContractorChangeDto> next = contractorJdbcDao.findChanges(base, "CTR001", until, 10);
+		assertEquals(1, next.size());
+		assertEquals("CTR002", next.get(0).getId());
+
+		assertTrue(contractorJdbcDao.findChanges(base.plusMinutes(1), "CTR002", until, 10).isEmpty());
+		assertEquals(1, contractorJdbcDao.findChanges(null, null, base.plusSeconds(30), 10).size());
+		assertEquals(1, contractorJdbcDao.findChanges(null, null, until, 1).size());
+	}
+
+	@Test
+	@DisplayName("updateIfChanged() stamp modify_date from the database clock used by the watermark")
+	void updateIfChanged_shouldStampModifyDateFromDatabaseClock() {
+		LocalDateTime before = contractorJdbcDao.currentTimestamp();
+		Contractor contractor = contractorJdbcDao.findById("CTR001").orElseThrow();
+		contractor.setName("ООО Новое название");
+
+		assertTrue(contractorJdbcDao.updateIfChanged(contractor, null));
+		LocalDateTime after = contractorJdbcDao.currentTimestamp();
+
+		ContractorChangeDto change = contractorJdbcDao.findChanges(before.minusNanos(1000), "", after.plusSeconds(1), 10).stream()
+				.filter(row -> row.getId().equals("CTR001"))
+				.findFirst()
+				.orElseThrow();
+		assertFalse(change.getChangedAt().isBefore(before));
+		assertFalse(change.getChangedAt().isAfter(after));
+	}
+
+}
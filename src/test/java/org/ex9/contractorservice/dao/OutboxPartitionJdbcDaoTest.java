@@ -0,0 +1,143 @@
+package org.ex9.contractorservice.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Миграции outbox_event (секционирование, NOTIFY, seq, тело сообщения) и обслуживание секций
+ * на настоящем PostgreSQL.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class OutboxPartitionJdbcDaoTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("contractor-service-test")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(false);
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxPartitionJdbcDao outboxPartitionJdbcDao;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE outbox_event");
+    }
+
+    @Test
+    @DisplayName("migrations create a partitioned outbox_event with seq, message columns and NOTIFY trigger")
+    void migrations_shouldCreatePartitionedOutboxTable() {
+        List<LocalDate> days = outboxPartitionJdbcDao.findPartitionDays();
+        LocalDate today = LocalDate.now();
+
+        assertTrue(days.contains(today));
+        assertTrue(days.contains(today.plusDays(7)));
+        assertEquals("p", jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE relname = 'outbox_event'", String.class));
+        assertEquals(List.of("aggregate_id", "content_type", "payload", "seq", "type_id"), jdbcTemplate.queryForList("""
+                SELECT column_name FROM information_schema.columns
+                WHERE table_name = 'outbox_event' AND column_name IN ('aggregate_id', 'content_type', 'payload', 'seq', 'type_id')
+                ORDER BY column_name
+                """, String.class));
+        assertEquals("bytea", jdbcTemplate.queryForObject(
+                "SELECT data_type FROM information_schema.columns WHERE table_name = 'outbox_event' AND column_name = 'payload'",
+                String.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_trigger WHERE tgname = 'outbox_event_notify'", Integer.class));
+
+        insertEvent(today);
+        insertEvent(today);
+        List<Long> seqs = jdbcTemplate.queryForList("SELECT seq FROM outbox_event ORDER BY seq", Long.class);
+        assertEquals(seqs.get(0) + 1, seqs.get(1));
+    }
+
+    @Test
+    @DisplayName("createPartition() move rows of the day out of the default partition")
+    void createPartition_withRowsInDefaultPartition_shouldMoveThem() {
+        LocalDate day = LocalDate.now().plusDays(30);
+        insertEvent(day);
+        assertEquals(1, countIn("outbox_event_default"));
+
+        outboxPartitionJdbcDao.createPartition(day);
+        outboxPartitionJdbcDao.createPartition(day);
+
+        assertTrue(outboxPartitionJdbcDao.findPartitionDays().contains(day));
+        assertEquals(0, countIn("outbox_event_default"));
+        assertEquals(1, countIn("outbox_event_p" + day.toString().replace("-", "")));
+        assertEquals(1, countIn("outbox_event"));
+
+        outboxPartitionJdbcDao.dropPartition(day, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("dropPartition() detach and drop the partition")
+    void dropPartition_shouldDetachAndDrop() {
+        LocalDate day = LocalDate.now().plusDays(40);
+        outboxPartitionJdbcDao.createPartition(day);
+
+        outboxPartitionJdbcDao.dropPartition(day, Duration.ofSeconds(5));
+        outboxPartitionJdbcDao.dropPartition(day, Duration.ofSeconds(5));
+
+        assertFalse(outboxPartitionJdbcDao.findPartitionDays().contains(day));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('outbox_event_p" + day.toString().replace("-", "") + "')::text", String.class));
+    }
+
+    @Test
+    @DisplayName("runExclusively() skip the job while another session holds the lock")
+    void runExclusively_whenLockHeld_shouldSkipConcurrentRun() {
+        AtomicBoolean nestedRan = new AtomicBoolean();
+
+        boolean ran = outboxPartitionJdbcDao.runExclusively(() -> {
+            // вложенный запуск идёт в другом потоке, то есть на другом соединении
+            boolean nested = CompletableFuture.supplyAsync(() -> outboxPartitionJdbcDao.runExclusively(() -> nestedRan.set(true))).join();
+            assertFalse(nested);
+        });
+
+        assertTrue(ran);
+        assertFalse(nestedRan.get());
+        assertTrue(outboxPartitionJdbcDao.runExclusively(() -> { }));
+    }
+
+    private void insertEvent(LocalDate day) {
+        jdbcTemplate.update("INSERT INTO outbox_event (type, payload, created_at) VALUES ('UPDATE', '\\x7b7d'::bytea, ?)",
+                day.atTime(12, 0));
+    }
+
+    private int countIn(String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+}
@@ -1,16 +1,29 @@
 package org.ex9.contractorservice.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.ex9.contractorservice.dao.ContractorJdbcDao;
+import org.ex9.contractorservice.dto.contractor.ContractorBatchResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorChangeDto;
+import org.ex9.contractorservice.dto.contractor.ContractorChangesResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorLookupRequestDto;
+import org.ex9.contractorservice.dto.contractor.ContractorLookupResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorFacetsDto;
+import org.ex9.contractorservice.dto.contractor.ContractorPageResponseDto;
 import org.ex9.contractorservice.dto.contractor.ContractorRequestDto;
 import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.ex9.contractorservice.dto.contractor.FacetValueDto;
 import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
-import org.ex9.contractorservice.dto.rabbit.ContractorDto;
+import org.ex9.contractorservice.dto.contractor.SparseContractorResponseDto;
+import org.ex9.contractorservice.dto.country.CountryResponseDto;
+import org.ex9.contractorservice.dto.industry.IndustryResponseDto;
+import org.ex9.contractorservice.dto.orgform.OrgFormResponseDto;
+import org.ex9.contractorservice.enums.ContractorField;
 import org.ex9.contractorservice.enums.EventType;
+import org.ex9.contractorservice.enums.SearchTotalMode;
 import org.ex9.contractorservice.exception.ContractorNotFoundException;
+import org.ex9.contractorservice.exception.ContractorVersionConflictException;
 import org.ex9.contractorservice.exception.CountryNotFoundException;
 import org.ex9.contractorservice.exception.IndustryNotFoundException;
+import org.ex9.contractorservice.exception.InvalidFieldsException;
 import org.ex9.contractorservice.exception.OrgFormNotFoundException;
 import org.ex9.contractorservice.mapper.ContractorMapper;
 import org.ex9.contractorservice.model.*;
@@ -20,18 +33,28 @@ import org.ex9.contractorservice.repository.IndustryRepository;
 import org.ex9.contractorservice.repository.OrgFormRepository;
 import org.ex9.contractorservice.service.outbox.OutboxPublisher;
 import org.ex9.contractorservice.service.outbox.OutboxService;
+import org.ex9.contractorservice.service.search.ParallelQueryExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -44,9 +67,6 @@ class ContractorServiceTest {
 	@Mock
 	private OutboxPublisher outboxPublisher;
 
-	@Mock
-	private ObjectMapper objectMapper;
-
 	@Mock
 	private ContractorJdbcDao contractorJdbcDao;
 
@@ -62,6 +82,18 @@ class ContractorServiceTest {
 	@Mock
 	private OrgFormRepository orgFormRepository;
 
+	@Mock
+	private CountryService countryService;
+
+	@Mock
+	private IndustryService industryService;
+
+	@Mock
+	private OrgFormService orgFormService;
+
+	@Spy
+	private ParallelQueryExecutor parallelQueryExecutor = new ParallelQueryExecutor(false, 0);
+
 	@InjectMocks
 	private ContractorService contractorService;
 
@@ -108,28 +140,28 @@ class ContractorServiceTest {
 	@Test
 	@DisplayName("findById() return dto of found contractor")
 	void findById_existingContractor_shouldReturnContractor() {
-		when(contractorJdbcDao.findById("CTR001")).thenReturn(Optional.of(contractor));
+		when(contractorJdbcDao.findResponseById("CTR001")).thenReturn(Optional.of(responseDto));
 
 		ContractorResponseDto result = contractorService.findById("CTR001");
 
 		assertNotNull(result);
 		assertEquals(responseDto, result);
-		verify(contractorJdbcDao).findById("CTR001");
+		verify(contractorJdbcDao).findResponseById("CTR001");
 	}
 
 	@Test
 	@DisplayName("findById() throw exception when id not exist")
 	void findById_nonExistingContractor_shouldThrowException() {
-		when(contractorJdbcDao.findById("NON_EXISTENT")).thenReturn(Optional.empty());
+		when(contractorJdbcDao.findResponseById("NON_EXISTENT")).thenReturn(Optional.empty());
 
 		assertThrows(ContractorNotFoundException.class, () -> contractorService.findById("NON_EXISTENT"),
 				"Contractor not found");
-		verify(contractorJdbcDao).findById("NON_EXISTENT");
+		verify(contractorJdbcDao).findResponseById("NON_EXISTENT");
 	}
 
 	@Test
 	@DisplayName("save() return new contractor")
-	void save_newContractor_shouldInsertAndReturnContractor() throws JsonProcessingException {
+	void save_newContractor_shouldInsertAndReturnContractor() {
 		this.contractor = ContractorMapper.toContractor(requestDto);
 		when(countryRepository.findById(requestDto.getCountryId())).thenReturn(Optional.of(Country.builder().id("RU").isActive(true).build()));
 		when(industryRepository.findById(requestDto.getIndustryId())).thenReturn(Optional.of(Industry.builder().id(1).isActive(true).build()));
@@ -138,19 +170,11 @@ class ContractorServiceTest {
 		when(contractorJdbcDao.insert(contractor)).thenReturn(contractor);
 		when(contractorJdbcDao.findById(contractor.getId())).thenReturn(Optional.of(contractor));
 
-		ContractorDto contractorDto = ContractorDto.builder()
-				.id("CTR001")
-				.name("Test Contractor")
-				.inn("1234567890")
-				.modifyDateTime(LocalDateTime.now())
-				.build();
-
 		OutboxEvent outboxEvent = new OutboxEvent();
-		outboxEvent.setPayload("{\"id\":\"CTR001\",\"name\":\"Test Contractor\",\"inn\":\"1234567890\",\"modifyDateTime\":\"2025-08-19T16:24:00\"}");
+		outboxEvent.setPayload("{\"id\":\"CTR001\",\"name\":\"Test Contractor\",\"inn\":\"1234567890\",\"modifyDateTime\":\"2025-08-19T16:24:00\"}".getBytes(StandardCharsets.UTF_8));
 
 		when(outboxService.saveEvent(any(Contractor.class))).thenReturn(outboxEvent);
-		when(objectMapper.readValue(outboxEvent.getPayload(), ContractorDto.class)).thenReturn(contractorDto);
-		doNothing().when(outboxPublisher).publish(any(ContractorDto.class));
+		doNothing().when(outboxPublisher).publish(outboxEvent);
 		doNothing().when(outboxService).markAsPublished(any(OutboxEvent.class));
 
 		ContractorResponseDto result = contractorService.save(requestDto);
@@ -167,28 +191,20 @@ class ContractorServiceTest {
 
 	@Test
 	@DisplayName("save() return updated contractor")
-	void save_existingContractor_shouldUpdateAndReturnContractor() throws JsonProcessingException {
+	void save_existingContractor_shouldUpdateAndReturnContractor() {
 		this.contractor = ContractorMapper.toContractor(requestDto);
 		when(countryRepository.findById(requestDto.getCountryId())).thenReturn(Optional.of(Country.builder().id("RU").isActive(true).build()));
 		when(industryRepository.findById(requestDto.getIndustryId())).thenReturn(Optional.of(Industry.builder().id(1).isActive(true).build()));
 		when(orgFormRepository.findById(requestDto.getOrgFormId())).thenReturn(Optional.of(OrgForm.builder().id(1).isActive(true).build()));
 		when(contractorRepository.existsById(requestDto.getId())).thenReturn(true);
-		when(contractorJdbcDao.update(contractor)).thenReturn(contractor);
+		when(contractorJdbcDao.updateIfChanged(contractor, null)).thenReturn(true);
 		when(contractorJdbcDao.findById(contractor.getId())).thenReturn(Optional.of(contractor));
 
-		ContractorDto contractorDto = ContractorDto.builder()
-				.id("CTR001")
-				.name("Test Contractor")
-				.inn("1234567890")
-				.modifyDateTime(LocalDateTime.now())
-				.build();
-
 		OutboxEvent outboxEvent = new OutboxEvent();
-		outboxEvent.setPayload("{\"id\":\"CTR001\",\"name\":\"Test Contractor\",\"inn\":\"1234567890\",\"modifyDateTime\":\"2025-08-19T16:24:00\"}");
+		outboxEvent.setPayload("{\"id\":\"CTR001\",\"name\":\"Test Contractor\",\"inn\":\"1234567890\",\"modifyDateTime\":\"2025-08-19T16:24:00\"}".getBytes(StandardCharsets.UTF_8));
 
 		when(outboxService.saveEvent(any(Contractor.class))).thenReturn(outboxEvent);
-		when(objectMapper.readValue(outboxEvent.getPayload(), ContractorDto.class)).thenReturn(contractorDto);
-		doNothing().when(outboxPublisher).publish(any(ContractorDto.class));
+		doNothing().when(outboxPublisher).publish(outboxEvent);
 		doNothing().when(outboxService).markAsPublished(any(OutboxEvent.class));
 
 		ContractorResponseDto result = contractorService.save(requestDto);
@@ -199,10 +215,59 @@ class ContractorServiceTest {
 		verify(countryRepository).findById("RU");
 		verify(industryRepository).findById(1);
 		verify(orgFormRepository).findById(1);
-		verify(contractorJdbcDao).update(contractor);
+		verify(contractorJdbcDao).updateIfChanged(contractor, null);
 		verify(contractorJdbcDao).findById("CTR001");
 	}
 
+	@Test
+	@DisplayName("save() passes If-Match version to conditional update")
+	void save_withExpectedVersion_shouldUpdateOnlyThatVersion() {
+		contractor.setVersion(4L);
+		when(countryRepository.findById(requestDto.getCountryId())).thenReturn(Optional.of(Country.builder().id("RU").isActive(true).build()));
+		when(industryRepository.findById(requestDto.getIndustryId())).thenReturn(Optional.of(Industry.builder().id(1).isActive(true).build()));
+		when(orgFormRepository.findById(requestDto.getOrgFormId())).thenReturn(Optional.of(OrgForm.builder().id(1).isActive(true).build()));
+		when(contractorRepository.existsById(requestDto.getId())).thenReturn(true);
+		when(contractorJdbcDao.updateIfChanged(any(Contractor.class), eq(3L))).thenReturn(true);
+		when(contractorJdbcDao.findById(contractor.getId())).thenReturn(Optional.of(contractor));
+		when(outboxService.saveEvent(any(Contractor.class))).thenReturn(new OutboxEvent());
+
+		ContractorResponseDto result = contractorService.save(requestDto, "user", 3L);
+
+		assertEquals(4L, result.getVersion());
+		verify(contractorJdbcDao).updateIfChanged(any(Contractor.class), eq(3L));
+	}
+
+	@Test
+	@DisplayName("save() of unchanged contractor skips the event")
+	void save_unchangedContractor_shouldSkipEventAndReturnCurrentRow() {
+		contractor.setVersion(7L);
+		when(countryRepository.findById(requestDto.getCountryId())).thenReturn(Optional.of(Country.builder().id("RU").isActive(true).build()));
+		when(industryRepository.findById(requestDto.getIndustryId())).thenReturn(Optional.of(Industry.builder().id(1).isActive(true).build()));
+		when(orgFormRepository.findById(requestDto.getOrgFormId())).thenReturn(Optional.of(OrgForm.builder().id(1).isActive(true).build()));
+		when(contractorRepository.existsById(requestDto.getId())).thenReturn(true);
+		when(contractorJdbcDao.updateIfChanged(any(Contractor.class), isNull())).thenReturn(false);
+		when(contractorJdbcDao.findById(contractor.getId())).thenReturn(Optional.of(contractor));
+
+		ContractorResponseDto result = contractorService.save(requestDto);
+
+		assertEquals("CTR001", result.getId());
+		assertEquals(7L, result.getVersion());
+		verifyNoInteractions(outboxService, outboxPublisher);
+	}
+
+	@Test
+	@DisplayName("save() with If-Match for missing contractor throws conflict")
+	void save_expectedVersionForMissingContractor_shouldThrowConflict() {
+		when(countryRepository.findById(requestDto.getCountryId())).thenReturn(Optional.of(Country.builder().id("RU").isActive(true).build()));
+		when(industryRepository.findById(requestDto.getIndustryId())).thenReturn(Optional.of(Industry.builder().id(1).isActive(true).build()));
+		when(orgFormRepository.findById(requestDto.getOrgFormId())).thenReturn(Optional.of(OrgForm.builder().id(1).isActive(true).build()));
+		when(contractorRepository.existsById(requestDto.getId())).thenReturn(false);
+
+		assertThrows(ContractorVersionConflictException.class, () -> contractorService.save(requestDto, "user", 3L));
+		verify(contractorJdbcDao, never()).insert(any(Contractor.class));
+		verifyNoInteractions(outboxService);
+	}
+
 	@Test
 	@DisplayName("save() throw exception when parent no exist")
 	void save_nonExistParent_shouldThrowContractorNotFoundException() {
@@ -259,14 +324,298 @@ class ContractorServiceTest {
 	void search_withFilters_shouldReturnContractors() {
 		SearchContractorRequestDto request = new SearchContractorRequestDto();
 		request.setContractorId("CTR001");
-		when(contractorJdbcDao.search(request)).thenReturn(List.of(contractor));
+		when(contractorJdbcDao.searchResponses(request)).thenReturn(List.of(responseDto));
 
 		List<ContractorResponseDto> result = contractorService.search(request);
 
 		assertNotNull(result);
 		assertEquals(1, result.size());
 		assertEquals("CTR001", result.get(0).getId());
-		verify(contractorJdbcDao).search(request);
+		verify(contractorJdbcDao).searchResponses(request);
+	}
+
+	@Test
+	@DisplayName("searchPage() detect next page by extra row without counting")
+	void searchPage_withExtraRow_shouldReportHasNextWithoutTotal() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(1);
+		when(contractorJdbcDao.searchResponses(request, 2)).thenReturn(List.of(responseDto, responseDto));
+
+		ContractorPageResponseDto result = contractorService.searchPage(request);
+
+		assertEquals(1, result.getContent().size());
+		assertTrue(result.isHasNext());
+		assertNull(result.getTotal());
+		verify(contractorJdbcDao, never()).count(any());
+		verify(contractorJdbcDao, never()).estimateCount(any());
+	}
+
+	@Test
+	@DisplayName("searchPage() return exact total on last page without count query")
+	void searchPage_lastPage_shouldReturnExactTotalWithoutCountQuery() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(2);
+		request.setSize(10);
+		request.setTotalMode(SearchTotalMode.AUTO);
+		when(contractorJdbcDao.searchResponses(request, 11)).thenReturn(List.of(responseDto));
+
+		ContractorPageResponseDto result = contractorService.searchPage(request);
+
+		assertFalse(result.isHasNext());
+		assertEquals(21L, result.getTotal());
+		assertTrue(result.getTotalExact());
+		verify(contractorJdbcDao, never()).count(any());
+		verify(contractorJdbcDao, never()).estimateCount(any());
+	}
+
+	@Test
+	@DisplayName("searchPage() return planner estimate for broad filter in AUTO mode")
+	void searchPage_autoModeBroadFilter_shouldReturnEstimate() {
+		ReflectionTestUtils.setField(contractorService, "exactCountThreshold", 100L);
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(1);
+		request.setTotalMode(SearchTotalMode.AUTO);
+		when(contractorJdbcDao.searchResponses(request, 2)).thenReturn(List.of(responseDto, responseDto));
+		when(contractorJdbcDao.estimateCount(request)).thenReturn(5000L);
+
+		ContractorPageResponseDto result = contractorService.searchPage(request);
+
+		assertEquals(5000L, result.getTotal());
+		assertFalse(result.getTotalExact());
+		verify(contractorJdbcDao, never()).count(any());
+	}
+
+	@Test
+	@DisplayName("searchPage() return exact count for selective filter in AUTO mode")
+	void searchPage_autoModeSelectiveFilter_shouldReturnExactCount() {
+		ReflectionTestUtils.setField(contractorService, "exactCountThreshold", 100L);
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(1);
+		request.setTotalMode(SearchTotalMode.AUTO);
+		when(contractorJdbcDao.searchResponses(request, 2)).thenReturn(List.of(responseDto, responseDto));
+		when(contractorJdbcDao.estimateCount(request)).thenReturn(40L);
+		when(contractorJdbcDao.count(request)).thenReturn(3L);
+
+		ContractorPageResponseDto result = contractorService.searchPage(request);
+
+		assertEquals(3L, result.getTotal());
+		assertTrue(result.getTotalExact());
+	}
+
+	@Test
+	@DisplayName("searchPage() return facets with names from reference data")
+	void searchPage_withFacets_shouldResolveFacetNames() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(10);
+		request.setFacets(true);
+		ContractorFacetsDto facets = new ContractorFacetsDto();
+		facets.getCountries().add(new FacetValueDto("RU", null, 2));
+		facets.getIndustries().add(new FacetValueDto("1", null, 2));
+		facets.getOrgForms().add(new FacetValueDto("1", null, 2));
+		when(contractorJdbcDao.searchResponses(request, 11)).thenReturn(List.of(responseDto));
+		when(contractorJdbcDao.facetCounts(request)).thenReturn(facets);
+		when(countryService.findAll()).thenReturn(List.of(new CountryResponseDto("RU", "Российская Федерация")));
+		when(industryService.findAll()).thenReturn(List.of(new IndustryResponseDto(1, "IT")));
+		when(orgFormService.findAll()).thenReturn(List.of(new OrgFormResponseDto(1, "ООО")));
+
+		ContractorPageResponseDto result = contractorService.searchPage(request);
+
+		assertNotNull(result.getFacets());
+		assertEquals("Российская Федерация", result.getFacets().getCountries().get(0).getName());
+		assertEquals("IT", result.getFacets().getIndustries().get(0).getName());
+		assertEquals("ООО", result.getFacets().getOrgForms().get(0).getName());
+		assertEquals(2L, result.getFacets().getCountries().get(0).getCount());
+	}
+
+	@Test
+	@DisplayName("searchPage() run page, count and facets queries concurrently outside the caller thread")
+	void searchPage_parallelExecutor_shouldRunQueriesConcurrently() {
+		ReflectionTestUtils.setField(contractorService, "parallelQueryExecutor", new ParallelQueryExecutor(true, 4));
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(1);
+		request.setTotalMode(SearchTotalMode.EXACT);
+		request.setFacets(true);
+		Thread caller = Thread.currentThread();
+		CountDownLatch started = new CountDownLatch(3);
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		when(contractorJdbcDao.searchResponses(request, 2)).thenAnswer(invocation -> {
+			threads.add(Thread.currentThread());
+			started.countDown();
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			return List.of(responseDto, responseDto);
+		});
+		when(contractorJdbcDao.count(request)).thenAnswer(invocation -> {
+			threads.add(Thread.currentThread());
+			started.countDown();
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			return 7L;
+		});
+		when(contractorJdbcDao.facetCounts(request)).thenAnswer(invocation -> {
+			threads.add(Thread.currentThread());
+			started.countDown();
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			return new ContractorFacetsDto();
+		});
+
+		ContractorPageResponseDto result = contractorService.searchPage(request);
+
+		assertTrue(result.isHasNext());
+		assertEquals(7L, result.getTotal());
+		assertTrue(result.getTotalExact());
+		assertNotNull(result.getFacets());
+		assertEquals(3, threads.size());
+		assertFalse(threads.contains(caller));
+	}
+
+	@Test
+	@DisplayName("searchPage() propagate failure of a parallel query and interrupt the others")
+	void searchPage_parallelQueryFails_shouldInterruptOthersAndRethrow() throws InterruptedException {
+		ReflectionTestUtils.setField(contractorService, "parallelQueryExecutor", new ParallelQueryExecutor(true, 4));
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(1);
+		request.setTotalMode(SearchTotalMode.EXACT);
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		when(contractorJdbcDao.searchResponses(request, 2)).thenAnswer(invocation -> {
+			running.countDown();
+			try {
+				Thread.sleep(Duration.ofSeconds(10));
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				throw e;
+			}
+			return List.of(responseDto);
+		});
+		when(contractorJdbcDao.count(request)).thenAnswer(invocation -> {
+			assertTrue(running.await(5, TimeUnit.SECONDS));
+			throw new IllegalStateException("count failed");
+		});
+
+		IllegalStateException error = assertThrows(IllegalStateException.class, () -> contractorService.searchPage(request));
+
+		assertEquals("count failed", error.getMessage());
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	@DisplayName("search() with fields resolve reference names from cached reference data")
+	void search_withFields_shouldResolveReferenceNames() {
+		SearchContractorRequestDto request = new SearchContractorRequestDto();
+		request.setPage(0);
+		request.setSize(10);
+		Set<ContractorField> fields = ContractorField.parse("id,country,orgForm");
+		SparseContractorResponseDto row = new SparseContractorResponseDto();
+		row.setId("CTR001");
+		row.setCountryId("RU");
+		row.setOrgFormId("1");
+		when(contractorJdbcDao.searchSparse(request, 10, fields)).thenReturn(List.of(row));
+		when(countryService.findAll()).thenReturn(List.of(new CountryResponseDto("RU", "Российская Федерация")));
+		when(orgFormService.findAll()).thenReturn(List.of(new OrgFormResponseDto(1, "ООО")));
+
+		List<ContractorResponseDto> result = contractorService.search(request, fields);
+
+		assertEquals(1, result.size());
+		assertEquals("Российская Федерация", result.get(0).getCountry());
+		assertEquals("ООО", result.get(0).getOrgForm());
+		assertNull(result.get(0).getIndustry());
+		verify(industryService, never()).findAll();
+		verify(contractorJdbcDao, never()).searchResponses(any());
+	}
+
+	@Test
+	@DisplayName("ContractorField.parse() reject unknown field")
+	void parseFields_unknownField_shouldThrowInvalidFieldsException() {
+		assertNull(ContractorField.parse(" "));
+		assertEquals(Set.of(ContractorField.ID, ContractorField.INN), ContractorField.parse("id, inn"));
+		assertThrows(InvalidFieldsException.class, () -> ContractorField.parse("id,password"));
+	}
+
+	@Test
+	@DisplayName("suggest() bound limit and skip blank prefix")
+	void suggest_shouldBoundLimitAndSkipBlankPrefix() {
+		ReflectionTestUtils.setField(contractorService, "suggestStatementTimeout", "100ms");
+		when(contractorJdbcDao.suggest("ООО", 50, "100ms")).thenReturn(List.of());
+
+		contractorService.suggest("ООО", 1000);
+		assertTrue(contractorService.suggest("  ", 10).isEmpty());
+
+		verify(contractorJdbcDao).suggest("ООО", 50, "100ms");
+		verifyNoMoreInteractions(contractorJdbcDao);
+	}
+
+	@Test
+	@DisplayName("findChanges() return next watermark from the last change")
+	void findChanges_shouldReturnNextWatermark() {
+		ReflectionTestUtils.setField(contractorService, "changesSafetyLag", Duration.ofSeconds(5));
+		LocalDateTime since = LocalDateTime.of(2025, 3, 20, 10, 0);
+		List<ContractorChangeDto> rows = List.of(
+				ContractorChangeDto.builder().id("CTR001").changedAt(since.plusSeconds(1)).active(true).build(),
+				ContractorChangeDto.builder().id("CTR002").changedAt(since.plusSeconds(2)).active(false).build(),
+				ContractorChangeDto.builder().id("CTR003").changedAt(since.plusSeconds(3)).active(true).build());
+		when(contractorJdbcDao.currentTimestamp()).thenReturn(since.plusMinutes(1));
+		when(contractorJdbcDao.findChanges(since, "CTR000", since.plusSeconds(55), 3)).thenReturn(rows);
+
+		ContractorChangesResponseDto result = contractorService.findChanges(since, "CTR000", 2);
+
+		assertEquals(2, result.getContent().size());
+		assertTrue(result.isHasMore());
+		assertEquals("CTR002", result.getNextAfterId());
+		assertEquals(since.plusSeconds(2), result.getNextSince());
+	}
+
+	@Test
+	@DisplayName("findChanges() keep watermark when there are no changes")
+	void findChanges_noChanges_shouldKeepWatermark() {
+		ReflectionTestUtils.setField(contractorService, "changesSafetyLag", Duration.ofSeconds(5));
+		LocalDateTime since = LocalDateTime.of(2025, 3, 20, 10, 0);
+		when(contractorJdbcDao.currentTimestamp()).thenReturn(since.plusMinutes(1));
+		when(contractorJdbcDao.findChanges(eq(since), eq("CTR001"), any(LocalDateTime.class), eq(501))).thenReturn(List.of());
+
+		ContractorChangesResponseDto result = contractorService.findChanges(since, "CTR001", 500);
+
+		assertTrue(result.getContent().isEmpty());
+		assertFalse(result.isHasMore());
+		assertEquals(since, result.getNextSince());
+		assertEquals("CTR001", result.getNextAfterId());
+	}
+
+	@Test
+	@DisplayName("findByIds() keep request order and report missing ids")
+	void findByIds_shouldKeepRequestOrderAndReportMissing() {
+		ContractorResponseDto first = new ContractorResponseDto();
+		first.setId("CTR001");
+		ContractorResponseDto second = new ContractorResponseDto();
+		second.setId("CTR002");
+		when(contractorJdbcDao.findResponsesByIds(any())).thenReturn(List.of(first, second));
+
+		ContractorBatchResponseDto result = contractorService.findByIds(List.of("CTR002", "CTR404", "CTR001", "CTR002"));
+
+		assertEquals(List.of("CTR002", "CTR001"), result.getContent().stream().map(ContractorResponseDto::getId).toList());
+		assertEquals(List.of("CTR404"), result.getMissing());
+		verify(contractorJdbcDao).findResponsesByIds(argThat(ids -> ids.size() == 3));
+	}
+
+	@Test
+	@DisplayName("lookup() return every requested value in request order")
+	void lookup_shouldReturnEveryRequestedValue() {
+		ContractorResponseDto contractor = new ContractorResponseDto();
+		contractor.setId("CTR001");
+		when(contractorJdbcDao.findResponsesByInns(any())).thenReturn(Map.of("123456789012", List.of(contractor)));
+
+		ContractorLookupResponseDto result = contractorService.lookup(
+				new ContractorLookupRequestDto(List.of("000000000000", "123456789012", "000000000000"), null));
+
+		assertEquals(List.of("000000000000", "123456789012"), List.copyOf(result.getByInn().keySet()));
+		assertTrue(result.getByInn().get("000000000000").isEmpty());
+		assertEquals(List.of(contractor), result.getByInn().get("123456789012"));
+		assertTrue(result.getByOgrn().isEmpty());
+		verify(contractorJdbcDao, never()).findResponsesByOgrns(any());
 	}
 
 	@Test
@@ -5,6 +5,7 @@ import org.ex9.contractorservice.dto.country.CountryResponseDto;
 import org.ex9.contractorservice.exception.CountryNotFoundException;
 import org.ex9.contractorservice.model.Country;
 import org.ex9.contractorservice.repository.CountryRepository;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,9 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class CountryServiceTest {
 
+    @Mock
+    ResourceVersionService resourceVersionService;
+
     @Mock
     CountryRepository countryRepository;
 
@@ -5,6 +5,7 @@ import org.ex9.contractorservice.dto.industry.IndustryResponseDto;
 import org.ex9.contractorservice.exception.IndustryNotFoundException;
 import org.ex9.contractorservice.model.Industry;
 import org.ex9.contractorservice.repository.IndustryRepository;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +22,9 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class IndustryServiceTest {
 
+	@Mock
+	ResourceVersionService resourceVersionService;
+
 	@Mock
 	IndustryRepository industryRepository;
 
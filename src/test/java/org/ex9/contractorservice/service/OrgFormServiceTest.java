@@ -5,6 +5,7 @@ import org.ex9.contractorservice.dto.orgform.OrgFormResponseDto;
 import org.ex9.contractorservice.exception.OrgFormNotFoundException;
 import org.ex9.contractorservice.model.OrgForm;
 import org.ex9.contractorservice.repository.OrgFormRepository;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +21,9 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class OrgFormServiceTest {
+	@Mock
+	ResourceVersionService resourceVersionService;
+
 	@Mock
 	OrgFormRepository orgFormRepository;
 
@@ -0,0 +1,174 @@
+package org.ex9.contractorservice.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ex9.contractorservice.dto.contractor.ContractorRequestDto;
+import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.ex9.contractorservice.exception.IdempotencyKeyReusedException;
+import org.ex9.contractorservice.exception.IdempotentRequestInProgressException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String REDIS_KEY = IdempotencyService.KEY_PREFIX + "anonymous:key-1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private IdempotencyService idempotencyService;
+
+    private ContractorRequestDto request;
+
+    private String inProgressEntry;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        idempotencyService = new IdempotencyService(redisTemplate, objectMapper);
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(idempotencyService, "inFlightTtl", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeout", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(idempotencyService, "pollInterval", Duration.ofMillis(10));
+
+        request = new ContractorRequestDto();
+        request.setId("CTR001");
+        request.setName("ООО Ромашка");
+    }
+
+    @Test
+    void execute_withoutKey_shouldRunActionWithoutRedis() {
+        var result = idempotencyService.execute(null, request, ContractorResponseDto.class, this::response);
+
+        assertEquals("CTR001", result.value().getId());
+        assertFalse(result.replayed());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void execute_firstRequest_shouldRunActionAndStoreResponse() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), eq(Duration.ofSeconds(30)))).thenReturn(true);
+
+        var result = idempotencyService.execute("key-1", request, ContractorResponseDto.class, this::response);
+
+        assertFalse(result.replayed());
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(REDIS_KEY), stored.capture(), eq(Duration.ofHours(24)));
+        assertTrue(stored.getValue().contains("\"id\":\"CTR001\""));
+    }
+
+    @Test
+    void execute_retry_shouldReplayStoredResponseWithoutRunningAction() {
+        String stored = storeFirstRequest();
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(stored);
+        AtomicInteger calls = new AtomicInteger();
+
+        var result = idempotencyService.execute("key-1", request, ContractorResponseDto.class, () -> {
+            calls.incrementAndGet();
+            return response();
+        });
+
+        assertTrue(result.replayed());
+        assertEquals("CTR001", result.value().getId());
+        assertEquals("ООО Ромашка", result.value().getName());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void execute_sameKeyDifferentBody_shouldBeRejected() {
+        String stored = storeFirstRequest();
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(stored);
+        request.setName("ООО Лютик");
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute("key-1", request, ContractorResponseDto.class, this::response));
+    }
+
+    @Test
+    void execute_whileFirstRequestInProgress_shouldWaitForItsResponse() {
+        String stored = storeFirstRequest();
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(inProgressEntry, stored);
+
+        var result = idempotencyService.execute("key-1", request, ContractorResponseDto.class, this::response);
+
+        assertTrue(result.replayed());
+        verify(valueOperations, times(2)).get(REDIS_KEY);
+    }
+
+    @Test
+    void execute_whenFirstRequestNeverCompletes_shouldThrowConflict() {
+        storeFirstRequest();
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(inProgressEntry);
+
+        assertThrows(IdempotentRequestInProgressException.class,
+                () -> idempotencyService.execute("key-1", request, ContractorResponseDto.class, this::response));
+    }
+
+    @Test
+    void execute_whenActionFails_shouldReleaseKey() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("key-1", request, ContractorResponseDto.class, () -> {
+            throw new IllegalArgumentException("invalid");
+        }));
+
+        verify(redisTemplate).delete(REDIS_KEY);
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void execute_whenRedisUnavailable_shouldRunAction() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("redis down"));
+
+        var result = idempotencyService.execute("key-1", request, ContractorResponseDto.class, this::response);
+
+        assertEquals("CTR001", result.value().getId());
+        assertFalse(result.replayed());
+    }
+
+    private String storeFirstRequest() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        idempotencyService.execute("key-1", request, ContractorResponseDto.class, this::response);
+        ArgumentCaptor<String> inProgress = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).setIfAbsent(eq(REDIS_KEY), inProgress.capture(), any(Duration.class));
+        inProgressEntry = inProgress.getValue();
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(REDIS_KEY), stored.capture(), any(Duration.class));
+        return stored.getValue();
+    }
+
+    private ContractorResponseDto response() {
+        ContractorResponseDto response = new ContractorResponseDto();
+        response.setId("CTR001");
+        response.setName("ООО Ромашка");
+        return response;
+    }
+
+}
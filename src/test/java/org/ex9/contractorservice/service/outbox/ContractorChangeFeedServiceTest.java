@@ -0,0 +1,147 @@
+package org.ex9.contractorservice.service.outbox;
+
+import org.ex9.contractorservice.dao.OutboxFeedJdbcDao;
+import org.ex9.contractorservice.dto.contractor.ContractorChangeEventDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedConstruction;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContractorChangeFeedServiceTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)");
+
+    @Mock
+    private OutboxFeedJdbcDao outboxFeedJdbcDao;
+
+    @InjectMocks
+    private ContractorChangeFeedService feedService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(feedService, "emitterTimeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(feedService, "batchSize", 100);
+        ReflectionTestUtils.setField(feedService, "maxCatchUp", 1000);
+        ReflectionTestUtils.setField(feedService, "gapTimeout", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void subscribe_withLastEventId_shouldCatchUpToHead() {
+        when(outboxFeedJdbcDao.findLastSeq()).thenReturn(5L);
+        when(outboxFeedJdbcDao.findBetween(2L, 5L, 100)).thenReturn(List.of(
+                new ContractorChangeEventDto(3L, "{}"),
+                new ContractorChangeEventDto(4L, "{}"),
+                new ContractorChangeEventDto(5L, "{}")));
+
+        assertNotNull(feedService.subscribe(2L));
+
+        assertEquals(1, feedService.subscriberCount());
+        verify(outboxFeedJdbcDao).findBetween(2L, 5L, 100);
+    }
+
+    @Test
+    void subscribe_whileCatchingUp_shouldNotBlockPollAndDeferNewEvents() {
+        when(outboxFeedJdbcDao.findLastSeq()).thenReturn(5L);
+        when(outboxFeedJdbcDao.findAfter(5L, 100)).thenReturn(List.of(new ContractorChangeEventDto(6L, "{}")));
+        when(outboxFeedJdbcDao.findBetween(3L, 5L, 100)).thenAnswer(invocation -> {
+            Thread poller = Thread.ofPlatform().start(feedService::poll);
+            poller.join(5000);
+            assertFalse(poller.isAlive());
+            return List.of(new ContractorChangeEventDto(4L, "{}"), new ContractorChangeEventDto(5L, "{}"));
+        });
+
+        assertNotNull(feedService.subscribe(3L));
+
+        assertEquals(6L, ReflectionTestUtils.getField(feedService, "lastSeq"));
+        assertEquals(1, feedService.subscriberCount());
+        List<?> subscribers = (List<?>) ReflectionTestUtils.getField(feedService, "subscribers");
+        assertNull(ReflectionTestUtils.getField(subscribers.get(0), "pending"));
+        assertEquals(5L, ReflectionTestUtils.getField(subscribers.get(0), "sentSeq"));
+    }
+
+    @Test
+    void subscribe_whenPollRunsAroundRegistration_shouldDeliverEveryEventOnce() throws IOException {
+        when(outboxFeedJdbcDao.findLastSeq()).thenReturn(5L);
+        when(outboxFeedJdbcDao.findAfter(5L, 100)).thenReturn(List.of(new ContractorChangeEventDto(6L, "{}")));
+        when(outboxFeedJdbcDao.findAfter(6L, 100)).thenReturn(List.of(new ContractorChangeEventDto(7L, "{}")));
+        when(outboxFeedJdbcDao.findBetween(4L, 7L, 100)).thenReturn(List.of(
+                new ContractorChangeEventDto(5L, "{}"),
+                new ContractorChangeEventDto(6L, "{}"),
+                new ContractorChangeEventDto(7L, "{}")));
+
+        try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class)) {
+            feedService.subscribe(null);
+            // опрос выполняется и до, и сразу после регистрации нового подписчика
+            List<Object> subscribers = new CopyOnWriteArrayList<>() {
+                @Override
+                public boolean add(Object subscriber) {
+                    feedService.poll();
+                    boolean added = super.add(subscriber);
+                    feedService.poll();
+                    return added;
+                }
+            };
+            subscribers.addAll((List<?>) ReflectionTestUtils.getField(feedService, "subscribers"));
+            ReflectionTestUtils.setField(feedService, "subscribers", subscribers);
+
+            feedService.subscribe(4L);
+
+            assertEquals(List.of(6L, 7L), sentIds(emitters.constructed().get(0)));
+            assertEquals(List.of(5L, 6L, 7L), sentIds(emitters.constructed().get(1)));
+        }
+    }
+
+    @Test
+    void poll_withoutSubscribers_shouldNotQueryDatabase() {
+        feedService.poll();
+
+        verifyNoInteractions(outboxFeedJdbcDao);
+    }
+
+    @Test
+    void poll_shouldWaitOnSequenceGapUntilTimeout() {
+        when(outboxFeedJdbcDao.findLastSeq()).thenReturn(5L);
+        feedService.subscribe(null);
+        when(outboxFeedJdbcDao.findAfter(5L, 100)).thenReturn(List.of(new ContractorChangeEventDto(7L, "{}")));
+
+        feedService.poll();
+        assertEquals(5L, ReflectionTestUtils.getField(feedService, "lastSeq"));
+
+        ReflectionTestUtils.setField(feedService, "gapTimeout", Duration.ZERO);
+
+        feedService.poll();
+        assertEquals(7L, ReflectionTestUtils.getField(feedService, "lastSeq"));
+    }
+
+    private static List<Long> sentIds(SseEmitter emitter) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeastOnce()).send(captor.capture());
+        List<Long> ids = new ArrayList<>();
+        for (SseEmitter.SseEventBuilder event : captor.getAllValues()) {
+            Matcher matcher = EVENT_ID.matcher(event.build().iterator().next().getData().toString());
+            if (matcher.find()) {
+                ids.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+        return ids;
+    }
+
+}
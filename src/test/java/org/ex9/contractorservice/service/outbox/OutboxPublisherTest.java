@@ -1,13 +1,21 @@
 package org.ex9.contractorservice.service.outbox;
 
-import org.ex9.contractorservice.dto.rabbit.ContractorDto;
+import org.ex9.contractorservice.model.OutboxEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -16,22 +24,35 @@ class OutboxPublisherTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Mock
+    private RabbitOperations channel;
+
     @InjectMocks
     private OutboxPublisher outboxPublisher;
 
     @Test
-    void sendContractor_shouldConvertJsonAndSend() throws Exception {
-        ContractorDto dto = ContractorDto.builder()
-                .id("1")
-                .name("Test")
-                .inn("123")
+    void publish_shouldSendStoredPayloadWithoutConversion() throws Exception {
+        ReflectionTestUtils.setField(outboxPublisher, "confirmTime", 1000L);
+        byte[] payload = "{\"id\":\"1\",\"name\":\"Test\",\"inn\":\"123\"}".getBytes(StandardCharsets.UTF_8);
+        OutboxEvent event = OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .payload(payload)
+                .contentType("application/json")
+                .typeId("org.ex9.contractorservice.dto.rabbit.ContractorDto")
                 .build();
 
-        doAnswer(invocationOnMock -> null).when(rabbitTemplate).invoke(any(RabbitTemplate.OperationsCallback.class));
+        doAnswer(invocation -> invocation.<RabbitTemplate.OperationsCallback<?>>getArgument(0).doInRabbit(channel))
+                .when(rabbitTemplate).invoke(any(RabbitTemplate.OperationsCallback.class));
 
-        outboxPublisher.publish(dto);
+        outboxPublisher.publish(event);
 
-        verify(rabbitTemplate, times(1)).invoke(any(RabbitTemplate.OperationsCallback.class));
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(channel).send(sent.capture());
+        verify(channel).waitForConfirmsOrDie(1000L);
+        assertSame(payload, sent.getValue().getBody());
+        assertEquals("application/json", sent.getValue().getMessageProperties().getContentType());
+        assertEquals(event.getId().toString(), sent.getValue().getMessageProperties().getMessageId());
+        assertEquals(event.getTypeId(), sent.getValue().getMessageProperties().getHeader("__TypeId__"));
     }
 
-}
\ No newline at end of file
+}
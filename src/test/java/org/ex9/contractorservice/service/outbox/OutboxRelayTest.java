@@ -0,0 +1,121 @@
+package org.ex9.contractorservice.service.outbox;
+
+import org.ex9.contractorservice.model.OutboxEvent;
+import org.ex9.contractorservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 500);
+        ReflectionTestUtils.setField(outboxRelay, "coalesceWindow", Duration.ofSeconds(5));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void relayBatch_withoutCoalescing_shouldPublishEveryEventInOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = List.of(
+                event("c1", "first", now.minusSeconds(3)),
+                event("c1", "second", now.minusSeconds(2)));
+
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.findUnpublished(500)).thenReturn(events);
+
+        assertEquals(2, outboxRelay.relayBatch());
+
+        ArgumentCaptor<OutboxEvent> published = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxPublisher, times(2)).publish(published.capture());
+        assertEquals(events, published.getAllValues());
+        verify(outboxEventRepository).markPublished(eq(List.of(events.get(0).getId(), events.get(1).getId())), any(LocalDateTime.class));
+    }
+
+    @Test
+    void relayBatch_withCoalescing_shouldPublishOnlyLatestEventPerContractor() {
+        ReflectionTestUtils.setField(outboxRelay, "coalesceEnabled", true);
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = List.of(
+                event("c1", "c1-v1", now.minusSeconds(10)),
+                event("c2", "c2-v1", now.minusSeconds(9)),
+                event("c1", "c1-v2", now.minusSeconds(8)),
+                event("c1", "c1-v3", now.minusSeconds(1)),
+                event("c3", "c3-v1", now.minusSeconds(1)));
+
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.findUnpublished(500)).thenReturn(events);
+
+        assertEquals(2, outboxRelay.relayBatch());
+
+        ArgumentCaptor<OutboxEvent> published = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxPublisher, times(2)).publish(published.capture());
+        assertEquals(List.of(events.get(1), events.get(3)), published.getAllValues());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<UUID>> marked = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxEventRepository).markPublished(marked.capture(), any(LocalDateTime.class));
+        assertEquals(4, marked.getValue().size());
+        assertFalse(marked.getValue().contains(events.get(4).getId()));
+
+        long dueIn = outboxRelay.millisUntilDue();
+        assertTrue(dueIn > 0 && dueIn <= 4000);
+    }
+
+    @Test
+    void relayBatch_whenLockHeldByAnotherInstance_shouldDoNothing() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(false);
+
+        assertEquals(0, outboxRelay.relayBatch());
+
+        verify(outboxEventRepository, never()).findUnpublished(anyInt());
+        verifyNoInteractions(outboxPublisher);
+    }
+
+    private OutboxEvent event(String contractorId, String name, LocalDateTime createdAt) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .aggregateId(contractorId)
+                .payload(("{\"id\":\"" + contractorId + "\",\"name\":\"" + name + "\"}").getBytes(StandardCharsets.UTF_8))
+                .contentType("application/json")
+                .isPublish(false)
+                .createdAt(createdAt)
+                .build();
+    }
+
+}
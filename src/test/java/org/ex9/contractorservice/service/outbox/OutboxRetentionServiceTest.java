@@ -0,0 +1,92 @@
+package org.ex9.contractorservice.service.outbox;
+
+import org.ex9.contractorservice.dao.OutboxPartitionJdbcDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRetentionServiceTest {
+
+    @Mock
+    private OutboxPartitionJdbcDao outboxPartitionJdbcDao;
+
+    @InjectMocks
+    private OutboxRetentionService outboxRetentionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRetentionService, "retention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(outboxRetentionService, "lockTimeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void dropExpiredPartitions_shouldDropOnlyOldFullyPublishedPartitions() {
+        LocalDate today = LocalDate.of(2025, 3, 20);
+        LocalDate withUnpublished = today.minusDays(10);
+        LocalDate expired = today.minusDays(9);
+        LocalDate recent = today.minusDays(1);
+
+        when(outboxPartitionJdbcDao.findPartitionDays()).thenReturn(List.of(withUnpublished, expired, recent, today));
+        when(outboxPartitionJdbcDao.hasUnpublished(withUnpublished)).thenReturn(true);
+        when(outboxPartitionJdbcDao.hasUnpublished(expired)).thenReturn(false);
+
+        int dropped = outboxRetentionService.dropExpiredPartitions(today.minusDays(7).atStartOfDay());
+
+        assertEquals(1, dropped);
+        verify(outboxPartitionJdbcDao).dropPartition(expired, Duration.ofSeconds(5));
+        verify(outboxPartitionJdbcDao, never()).dropPartition(eq(withUnpublished), any());
+        verify(outboxPartitionJdbcDao, never()).dropPartition(eq(recent), any());
+        verify(outboxPartitionJdbcDao).purgeDefaultPartition(any(LocalDateTime.class));
+    }
+
+    @Test
+    void maintain_whenAnotherInstanceHoldsLock_shouldSkip() {
+        when(outboxPartitionJdbcDao.runExclusively(any())).thenReturn(false);
+
+        outboxRetentionService.maintain();
+
+        verify(outboxPartitionJdbcDao).runExclusively(any());
+        verifyNoMoreInteractions(outboxPartitionJdbcDao);
+    }
+
+    @Test
+    void maintain_withLock_shouldCreateAndDropPartitions() {
+        when(outboxPartitionJdbcDao.runExclusively(any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return true;
+        });
+        when(outboxPartitionJdbcDao.findPartitionDays()).thenReturn(List.of());
+
+        outboxRetentionService.maintain();
+
+        verify(outboxPartitionJdbcDao).createPartition(LocalDate.now());
+        verify(outboxPartitionJdbcDao).purgeDefaultPartition(any(LocalDateTime.class));
+    }
+
+    @Test
+    void createPartitions_shouldCreateTodayAndPremadeDays() {
+        ReflectionTestUtils.setField(outboxRetentionService, "premakeDays", 2);
+        LocalDate today = LocalDate.of(2025, 3, 20);
+
+        outboxRetentionService.createPartitions(today);
+
+        verify(outboxPartitionJdbcDao).createPartition(today);
+        verify(outboxPartitionJdbcDao).createPartition(today.plusDays(1));
+        verify(outboxPartitionJdbcDao).createPartition(today.plusDays(2));
+        verifyNoMoreInteractions(outboxPartitionJdbcDao);
+    }
+
+}
@@ -10,6 +10,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -34,9 +36,9 @@ class OutboxServiceTest {
                 .inn("3215644653218")
                 .build();
 
-        String json = "{\"id\":\"tst\",\"name\":\"test contractor\",\"inn\":\"3215644653218\"}";
+        byte[] json = "{\"id\":\"tst\",\"name\":\"test contractor\",\"inn\":\"3215644653218\"}".getBytes(StandardCharsets.UTF_8);
 
-        when(objectMapper.writeValueAsString(any(ContractorDto.class))).thenReturn(json);
+        when(objectMapper.writeValueAsBytes(any(ContractorDto.class))).thenReturn(json);
 
         outboxService.saveEvent(contractor);
 
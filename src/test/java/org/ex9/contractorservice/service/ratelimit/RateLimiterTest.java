@@ -0,0 +1,87 @@
+package org.ex9.contractorservice.service.ratelimit;
+
+import org.ex9.contractorservice.cache.CircuitBreaker;
+import org.ex9.contractorservice.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RateLimiterTest {
+
+    private RateLimitProperties properties;
+    private StringRedisTemplate redisTemplate;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(3);
+        limit.setRefillPerSecond(1);
+        properties = new RateLimitProperties();
+        properties.getLimits().put("search", limit);
+        redisTemplate = mock(StringRedisTemplate.class);
+        rateLimiter = new RateLimiter(properties, redisTemplate, new CircuitBreaker("test", 1, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void tryAcquire_overCapacity_shouldReturnRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("search", "user:alice").isZero());
+        }
+
+        Duration retryAfter = rateLimiter.tryAcquire("search", "user:alice");
+        assertFalse(retryAfter.isZero());
+        assertTrue(retryAfter.compareTo(Duration.ofSeconds(1)) <= 0);
+        assertTrue(rateLimiter.tryAcquire("search", "user:bob").isZero());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void tryAcquire_unknownLimitOrDisabled_shouldAllow() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire("lookup", "ip:10.0.0.1").isZero());
+        }
+        properties.setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire("search", "ip:10.0.0.1").isZero());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_sharedBucket_shouldUseRedisAndFallBackToLocal() {
+        properties.setShared(true);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenReturn(250_000L)
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(Duration.ofMillis(250), rateLimiter.tryAcquire("search", "user:alice"));
+        assertTrue(rateLimiter.tryAcquire("search", "user:alice").isZero());
+        assertTrue(rateLimiter.tryAcquire("search", "user:alice").isZero());
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(List.of(RateLimiter.KEY_PREFIX + "search:user:alice")), any(), any());
+    }
+
+    @Test
+    void tokenBucket_shouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        long retryAfter = bucket.tryConsume(0);
+        assertTrue(Math.abs(retryAfter - 500_000_000L) <= 1, "retry after " + retryAfter);
+        assertEquals(0, bucket.tryConsume(600_000_000L));
+        assertFalse(bucket.isFull(700_000_000L));
+        assertTrue(bucket.isFull(1_200_000_000L));
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.ex9.contractorservice.service.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelQueryExecutorTest {
+
+    private final ParallelQueryExecutor executor = new ParallelQueryExecutor(true, 4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void fork_independentQueries_shouldRunConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try (ParallelQueryExecutor.Scope scope = executor.open()) {
+            var page = scope.fork(() -> awaitSibling(bothStarted, "page"));
+            var count = scope.fork(() -> awaitSibling(bothStarted, "count"));
+
+            assertEquals("page", page.get());
+            assertEquals("count", count.get());
+        }
+    }
+
+    @Test
+    void fork_failedQuery_shouldInterruptSiblingAndRethrow() throws Exception {
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        CountDownLatch siblingFinished = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        try (ParallelQueryExecutor.Scope scope = executor.open()) {
+            var page = scope.fork(() -> {
+                siblingStarted.countDown();
+                try {
+                    Thread.sleep(10_000);
+                    return "page";
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                    throw new IllegalStateException("interrupted", e);
+                } finally {
+                    siblingFinished.countDown();
+                }
+            });
+            assertTrue(siblingStarted.await(5, TimeUnit.SECONDS));
+            scope.fork(() -> {
+                throw new IllegalArgumentException("count failed");
+            });
+
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class, page::get);
+            assertEquals("count failed", error.getMessage());
+        }
+        assertTrue(siblingFinished.await(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    void cancel_forkedQueryNotYetStarted_shouldReturnPermitAndSkipQuery() throws Exception {
+        ParallelQueryExecutor limited = new ParallelQueryExecutor(true, 1);
+        // исполнитель с единственным занятым потоком: отправленная задача стоит в очереди
+        ExecutorService queueing = Executors.newSingleThreadExecutor();
+        CountDownLatch gate = new CountDownLatch(1);
+        queueing.submit(() -> {
+            gate.await();
+            return null;
+        });
+        ReflectionTestUtils.setField(limited, "executor", queueing);
+        AtomicInteger executed = new AtomicInteger();
+        try {
+            try (ParallelQueryExecutor.Scope scope = limited.open()) {
+                var count = scope.fork(executed::incrementAndGet);
+                Semaphore permits = (Semaphore) ReflectionTestUtils.getField(limited, "permits");
+                assertEquals(0, permits.availablePermits());
+
+                count.cancel(true);
+
+                assertEquals(1, permits.availablePermits());
+            }
+            gate.countDown();
+            queueing.shutdown();
+            assertTrue(queueing.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(0, executed.get());
+        } finally {
+            queueing.shutdownNow();
+        }
+    }
+
+    @Test
+    void fork_withoutPermits_shouldDeferQueryToCaller() {
+        ParallelQueryExecutor sequential = new ParallelQueryExecutor(false, 0);
+        AtomicInteger executed = new AtomicInteger();
+        try (ParallelQueryExecutor.Scope scope = sequential.open()) {
+            var page = scope.fork(() -> Thread.currentThread().getName());
+            var count = scope.fork(executed::incrementAndGet);
+
+            assertEquals(Thread.currentThread().getName(), page.get());
+            count.cancel(false);
+        } finally {
+            sequential.shutdown();
+        }
+        assertEquals(0, executed.get());
+    }
+
+    private static String awaitSibling(CountDownLatch bothStarted, String result) {
+        bothStarted.countDown();
+        try {
+            if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Queries were not executed concurrently");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,107 @@
+package org.ex9.contractorservice.service.version;
+
+import org.ex9.contractorservice.enums.VersionedResource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceVersionServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private ResourceVersionService versionService;
+
+    @BeforeEach
+    void setUp() {
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(hashOperations.entries(ResourceVersionService.VERSIONS_KEY)).thenReturn(Map.of("COUNTRIES", "5"));
+        versionService = new ResourceVersionService(redisTemplate);
+    }
+
+    @Test
+    void etag_shouldUseVersionLoadedFromRedis() {
+        assertEquals("\"countries-5\"", versionService.etag(VersionedResource.COUNTRIES));
+        assertEquals("\"industries-0\"", versionService.etag(VersionedResource.INDUSTRIES));
+    }
+
+    @Test
+    void bump_shouldIncrementAndShareVersion() {
+        when(hashOperations.increment(ResourceVersionService.VERSIONS_KEY, "COUNTRIES", 1)).thenReturn(6L);
+
+        versionService.bump(VersionedResource.COUNTRIES);
+
+        assertEquals("\"countries-6\"", versionService.etag(VersionedResource.COUNTRIES));
+        verify(redisTemplate).convertAndSend(ResourceVersionService.VERSIONS_CHANNEL, "COUNTRIES=6");
+    }
+
+    @Test
+    void bump_whenRedisFails_shouldHideVersionsUntilResync() {
+        when(hashOperations.increment(ResourceVersionService.VERSIONS_KEY, "INDUSTRIES", 1))
+                .thenThrow(new IllegalStateException("redis down"))
+                .thenReturn(2L);
+        assertEquals("5.0.0", versionService.referencesStamp());
+
+        versionService.bump(VersionedResource.INDUSTRIES);
+
+        assertFalse(versionService.isKnown());
+        assertNull(versionService.referencesStamp());
+        assertNull(versionService.etag(VersionedResource.INDUSTRIES));
+
+        when(hashOperations.entries(ResourceVersionService.VERSIONS_KEY)).thenReturn(Map.of("COUNTRIES", "5", "INDUSTRIES", "2"));
+        versionService.resync();
+
+        assertTrue(versionService.isKnown());
+        assertEquals("5.2.0", versionService.referencesStamp());
+        verify(redisTemplate).convertAndSend(ResourceVersionService.VERSIONS_CHANNEL, "INDUSTRIES=2");
+    }
+
+    @Test
+    void resync_whenRedisWasDownAtStart_shouldReportUnknownVersionsUntilLoaded() {
+        when(hashOperations.entries(ResourceVersionService.VERSIONS_KEY)).thenThrow(new IllegalStateException("redis down"));
+        ResourceVersionService startedWithoutRedis = new ResourceVersionService(redisTemplate);
+
+        assertFalse(startedWithoutRedis.isKnown());
+        assertNull(startedWithoutRedis.etag(VersionedResource.COUNTRIES));
+
+        doReturn(Map.of("COUNTRIES", "7")).when(hashOperations).entries(ResourceVersionService.VERSIONS_KEY);
+        startedWithoutRedis.resync();
+
+        assertTrue(startedWithoutRedis.isKnown());
+        assertEquals("\"countries-7\"", startedWithoutRedis.etag(VersionedResource.COUNTRIES));
+    }
+
+    @Test
+    void resync_shouldApplyVersionMissedOnPubSub() {
+        when(hashOperations.entries(ResourceVersionService.VERSIONS_KEY)).thenReturn(Map.of("COUNTRIES", "9"));
+
+        versionService.resync();
+
+        assertEquals("\"countries-9\"", versionService.etag(VersionedResource.COUNTRIES));
+    }
+
+    @Test
+    void onMessage_shouldApplyVersionFromOtherInstance() {
+        versionService.onMessage(new DefaultMessage(
+                ResourceVersionService.VERSIONS_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "ORG_FORMS=42".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals("\"org_forms-42\"", versionService.etag(VersionedResource.ORG_FORMS));
+    }
+
+}
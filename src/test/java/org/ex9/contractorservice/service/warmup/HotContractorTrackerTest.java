@@ -0,0 +1,71 @@
+package org.ex9.contractorservice.service.warmup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotContractorTrackerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StringRedisConnection connection;
+
+    private HotContractorTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new HotContractorTracker(redisTemplate);
+        ReflectionTestUtils.setField(tracker, "maxTracked", 100);
+        ReflectionTestUtils.setField(tracker, "maxPending", 2);
+    }
+
+    @Test
+    void flush_shouldSendAccumulatedHitsInOnePipeline() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis((RedisConnection) connection));
+
+        tracker.record("CTR001");
+        tracker.record("CTR001");
+        tracker.record("CTR002");
+        tracker.record("CTR003");
+        tracker.flush();
+        tracker.flush();
+
+        verify(connection).zIncrBy(HotContractorTracker.HOT_CONTRACTORS_KEY, 2, "CTR001");
+        verify(connection).zIncrBy(HotContractorTracker.HOT_CONTRACTORS_KEY, 1, "CTR002");
+        verify(connection).zRemRange(HotContractorTracker.HOT_CONTRACTORS_KEY, 0, -101);
+        verifyNoMoreInteractions(connection);
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void topIds_shouldReturnIdsByPopularity() {
+        ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.reverseRange(HotContractorTracker.HOT_CONTRACTORS_KEY, 0, 1))
+                .thenReturn(new LinkedHashSet<>(List.of("CTR002", "CTR001")));
+
+        assertEquals(List.of("CTR002", "CTR001"), tracker.topIds(2));
+        assertEquals(List.of(), tracker.topIds(0));
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.ex9.contractorservice.service.warmup;
+
+import org.ex9.contractorservice.dto.country.CountryResponseDto;
+import org.ex9.contractorservice.dto.contractor.ContractorResponseDto;
+import org.ex9.contractorservice.dto.contractor.SearchContractorRequestDto;
+import org.ex9.contractorservice.exception.ContractorNotFoundException;
+import org.ex9.contractorservice.service.ContractorService;
+import org.ex9.contractorservice.service.CountryService;
+import org.ex9.contractorservice.service.IndustryService;
+import org.ex9.contractorservice.service.OrgFormService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarmupRunnerTest {
+
+    @Mock
+    private CountryService countryService;
+
+    @Mock
+    private IndustryService industryService;
+
+    @Mock
+    private OrgFormService orgFormService;
+
+    @Mock
+    private ContractorService contractorService;
+
+    @Mock
+    private HotContractorTracker hotContractorTracker;
+
+    @InjectMocks
+    private WarmupRunner warmupRunner;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(warmupRunner, "timeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(warmupRunner, "topContractors", 2);
+        ReflectionTestUtils.setField(warmupRunner, "contractorIds", List.of("CTR001"));
+        ReflectionTestUtils.setField(warmupRunner, "searchIterations", 6);
+    }
+
+    @Test
+    void run_shouldLoadReferencesContractorsAndSearches() {
+        when(countryService.findAll()).thenReturn(List.of(new CountryResponseDto("RU", "Россия")));
+        when(hotContractorTracker.topIds(2)).thenReturn(List.of("CTR002", "CTR001"));
+        when(contractorService.findById("CTR002")).thenThrow(new ContractorNotFoundException("not found"));
+        when(contractorService.findById("CTR001")).thenReturn(new ContractorResponseDto());
+
+        warmupRunner.run(new DefaultApplicationArguments());
+
+        verify(industryService).findAll();
+        verify(orgFormService).findAll();
+        verify(contractorService).findById("CTR001");
+        verify(contractorService).findById("CTR002");
+        verify(contractorService, times(6)).searchPage(any(SearchContractorRequestDto.class));
+    }
+
+    @Test
+    void warmReferences_shouldBuildSearchesFromReferenceData() {
+        when(countryService.findAll()).thenReturn(List.of(new CountryResponseDto("RU", "Россия")));
+
+        List<SearchContractorRequestDto> searches = warmupRunner.warmReferences();
+
+        assertEquals(3, searches.size());
+        assertTrue(searches.stream().anyMatch(search -> "Россия".equals(search.getCountry())));
+        assertTrue(searches.stream().allMatch(search -> search.getPage() == 0 && search.getSize() > 0));
+    }
+
+    @Test
+    void run_whenSearchFails_shouldNotFailStartup() {
+        when(contractorService.searchPage(any(SearchContractorRequestDto.class))).thenThrow(new IllegalStateException("db down"));
+
+        assertDoesNotThrow(() -> warmupRunner.run(new DefaultApplicationArguments()));
+
+        // без справочников остаются два типовых поиска; после двух неудач подряд поиск прекращается
+        verify(contractorService, times(2)).searchPage(any(SearchContractorRequestDto.class));
+    }
+
+    @Test
+    void run_whenOneStepFails_shouldSkipItAndContinue() {
+        when(countryService.findAll()).thenThrow(new IllegalStateException("redis down"));
+        when(hotContractorTracker.topIds(2)).thenReturn(List.of("CTR002"));
+        when(contractorService.findById("CTR001")).thenThrow(new IllegalStateException("timeout"));
+        when(contractorService.findById("CTR002")).thenReturn(new ContractorResponseDto());
+        when(contractorService.searchPage(any(SearchContractorRequestDto.class)))
+                .thenThrow(new IllegalStateException("timeout"))
+                .thenReturn(null);
+
+        assertDoesNotThrow(() -> warmupRunner.run(new DefaultApplicationArguments()));
+
+        verify(industryService).findAll();
+        verify(orgFormService).findAll();
+        verify(contractorService).findById("CTR002");
+        verify(contractorService, times(6)).searchPage(any(SearchContractorRequestDto.class));
+    }
+
+}
@@ -0,0 +1,122 @@
+package org.ex9.contractorservice.web;
+
+import org.ex9.contractorservice.enums.VersionedResource;
+import org.ex9.contractorservice.service.version.ResourceVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionalGetInterceptorTest {
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    private ConditionalGetInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new ConditionalGetInterceptor(resourceVersionService, Duration.ofSeconds(60));
+    }
+
+    @Test
+    void preHandle_whenEtagMatches_shouldReturnNotModified() throws Exception {
+        when(resourceVersionService.etag(VersionedResource.COUNTRIES)).thenReturn("\"countries-3\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/country/all");
+        request.addHeader("If-None-Match", "\"countries-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, handler("countries")));
+
+        assertEquals(304, response.getStatus());
+        assertEquals("\"countries-3\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void preHandle_whenEtagDiffers_shouldProceedWithEtagAndCacheControl() throws Exception {
+        when(resourceVersionService.etag(VersionedResource.COUNTRIES)).thenReturn("\"countries-4\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/country/all");
+        request.addHeader("If-None-Match", "\"countries-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, handler("countries")));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"countries-4\"", response.getHeader("ETag"));
+        assertEquals("max-age=60, must-revalidate", response.getHeader("Cache-Control"));
+        assertEquals("Accept", response.getHeader("Vary"));
+    }
+
+    @Test
+    void preHandle_withBinaryAccept_shouldUseRepresentationSpecificEtag() throws Exception {
+        when(resourceVersionService.etag(VersionedResource.COUNTRIES)).thenReturn("\"countries-3\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/country/all");
+        request.addHeader("Accept", "application/x-jackson-smile");
+        request.addHeader("If-None-Match", "\"countries-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, handler("countries")));
+
+        assertEquals("\"countries-3-smile\"", response.getHeader("ETag"));
+        assertEquals("Accept", response.getHeader("Vary"));
+
+        MockHttpServletRequest cbor = new MockHttpServletRequest("GET", "/country/all");
+        cbor.addHeader("Accept", "application/json;q=0.5, application/cbor");
+        cbor.addHeader("If-None-Match", "\"countries-3-cbor\"");
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(cbor, notModified, handler("countries")));
+        assertEquals(304, notModified.getStatus());
+    }
+
+    @Test
+    void preHandle_whenVersionsUnknown_shouldProceedWithoutEtag() throws Exception {
+        when(resourceVersionService.etag(VersionedResource.COUNTRIES)).thenReturn(null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/country/all");
+        request.addHeader("If-None-Match", "\"countries-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, handler("countries")));
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("ETag"));
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void preHandle_withoutAnnotation_shouldNotTouchVersions() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/contractor/suggest");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handler("plain")));
+
+        verifyNoInteractions(resourceVersionService);
+    }
+
+    private HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new TestController(), TestController.class.getMethod(method));
+    }
+
+    static class TestController {
+
+        @ConditionalGet(VersionedResource.COUNTRIES)
+        public String countries() {
+            return "countries";
+        }
+
+        public String plain() {
+            return "plain";
+        }
+
+    }
+
+}